@@ -0,0 +1,142 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.Servico;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import io.github.pfalencar.clientes.service.ClienteService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Leituras com e sem o cache de segundo nível do Hibernate, sobre 1000 clientes com um serviço cada.
+//Além do tempo, o contador "comandosSql" (ops/s do mesmo jeito que o benchmark) mostra as idas ao banco:
+//comandosSql / score = comandos SQL por operação (perto de zero com o cache ligado depois do aquecimento).
+//leiturasComAlteracoes mistura 10% de PUTs: mostra quanto do cache sobra quando a base também é alterada.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSegundoNivelBenchmark {
+
+    private static final int QUANTIDADE = 1000;
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteRepository clienteRepository;
+    private ServicoRepository servicoRepository;
+    private ClienteService clienteService;
+    private Statistics estatisticas;
+    private TransactionTemplate transacao;
+    private int menorIdCliente;
+    private int menorIdServico;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ComandosSql {
+        public long comandosSql;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = Dados.iniciarAplicacao(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + cache);
+        clienteRepository = contexto.getBean(ClienteRepository.class);
+        servicoRepository = contexto.getBean(ServicoRepository.class);
+        clienteService = contexto.getBean(ClienteService.class);
+        estatisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        List<Cliente> clientes = new ArrayList<>(QUANTIDADE);
+        for (int i = 1; i <= QUANTIDADE; i++) {
+            clientes.add(Dados.cliente(i));
+        }
+        transacao.execute(status -> clienteRepository.saveAll(clientes));
+        List<Servico> servicos = new ArrayList<>(QUANTIDADE);
+        for (Cliente cliente : clientes) {
+            Servico servico = new Servico();
+            servico.setDescricao("Serviço benchmark");
+            servico.setValor(BigDecimal.TEN);
+            servico.setData(LocalDate.now());
+            servico.setCliente(cliente);
+            servicos.add(servico);
+        }
+        transacao.execute(status -> servicoRepository.saveAll(servicos));
+        menorIdCliente = clientes.get(0).getId();
+        menorIdServico = servicos.get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    //como o GET /api/clientes/{id} sem o ClienteCache na frente
+    @Benchmark
+    public Optional<Cliente> clientePorId(ComandosSql contador) {
+        long antes = estatisticas.getPrepareStatementCount();
+        Optional<Cliente> cliente = clienteRepository.findById(
+                ThreadLocalRandom.current().nextInt(menorIdCliente, menorIdCliente + QUANTIDADE));
+        contador.comandosSql += estatisticas.getPrepareStatementCount() - antes;
+        return cliente;
+    }
+
+    //a mesma página da listagem se repetindo (cache de consultas)
+    @Benchmark
+    public List<Cliente> paginaClientes(ComandosSql contador) {
+        long antes = estatisticas.getPrepareStatementCount();
+        List<Cliente> pagina = clienteRepository.findPaginaByIdGreaterThanOrderByIdAsc(
+                menorIdCliente + ThreadLocalRandom.current().nextInt(10) * 50, PageRequest.of(0, 51));
+        contador.comandosSql += estatisticas.getPrepareStatementCount() - antes;
+        return pagina;
+    }
+
+    //serviço por id e o seu cliente (o @ManyToOne LAZY), numa transação só
+    @Benchmark
+    public String servicoComCliente(ComandosSql contador) {
+        long antes = estatisticas.getPrepareStatementCount();
+        String nome = transacao.execute(status ->
+                servicoRepository.findById(
+                        ThreadLocalRandom.current().nextInt(menorIdServico, menorIdServico + QUANTIDADE))
+                        .map(servico -> servico.getCliente().getNome())
+                        .orElse(null));
+        contador.comandosSql += estatisticas.getPrepareStatementCount() - antes;
+        return nome;
+    }
+
+    //9 leituras por id para cada alteração (o caminho do PUT /api/clientes/{id}, sem If-Match). Cada alteração só
+    //tira a entrada do próprio cliente do cache; as outras 999 continuam valendo.
+    @Benchmark
+    public Object leiturasComAlteracoes(ComandosSql contador) {
+        long antes = estatisticas.getPrepareStatementCount();
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int posicao = aleatorio.nextInt(QUANTIDADE);
+        Object resultado = null;
+        if (aleatorio.nextInt(10) == 0) {
+            clienteService.atualizar(menorIdCliente + posicao, null,
+                    "Cliente Alterado " + aleatorio.nextInt(), Dados.cpf(posicao + 1));
+        } else {
+            resultado = clienteRepository.findById(menorIdCliente + posicao);
+        }
+        contador.comandosSql += estatisticas.getPrepareStatementCount() - antes;
+        return resultado;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.config.InternacionalizacaoConfig;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.rest.ApplicationControllerAdvice;
+import io.github.pfalencar.clientes.rest.ClienteController;
+import io.github.pfalencar.clientes.rest.exception.ApiErrors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+//Custo de transformar um erro de validação do @Valid no ApiErrors devolvido com 400
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerAdviceBenchmark {
+
+    private ApplicationControllerAdvice advice;
+    private MethodArgumentNotValidException exception;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        LocalValidatorFactoryBean validator = new InternacionalizacaoConfig().validatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        Cliente invalido = new Cliente();
+        invalido.setNome("");
+        invalido.setCpf("12345678900");
+
+        //mesmo resultado de validação que o Spring monta para o @RequestBody @Valid do ClienteController.salvar
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalido, "cliente");
+        validator.validate(invalido, bindingResult);
+        MethodParameter parametro = new MethodParameter(ClienteController.class.getMethod("salvar", Cliente.class), 0);
+        exception = new MethodArgumentNotValidException(parametro, bindingResult);
+
+        advice = new ApplicationControllerAdvice(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public ApiErrors handleValidationErrors() {
+        return advice.handleValidationErrors(exception);
+    }
+}
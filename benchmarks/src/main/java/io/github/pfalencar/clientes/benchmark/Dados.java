@@ -0,0 +1,64 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import io.github.pfalencar.clientes.ClientesApplication;
+
+import java.util.UUID;
+
+//Utilitários comuns dos benchmarks: geração de clientes válidos e subida da aplicação com um H2 próprio.
+final class Dados {
+
+    private Dados() {
+    }
+
+    //CPF válido (com dígitos verificadores) a partir de um número sequencial, para não repetir no índice único
+    static String cpf(long numero) {
+        int[] digitos = new int[11];
+        long base = numero % 1_000_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = (soma * 10) % 11;
+        return resto == 10 ? 0 : resto;
+    }
+
+    static Cliente cliente(long numero) {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Cliente Benchmark " + numero);
+        cliente.setCpf(cpf(numero));
+        return cliente;
+    }
+
+    //Sobe a aplicação sem servidor web, com um banco H2 em memória exclusivo e sem log de SQL
+    static ConfigurableApplicationContext iniciarAplicacao(String... propriedadesExtras) {
+        return new SpringApplicationBuilder(ClientesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.h2.console.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .properties(propriedadesExtras)
+                .run();
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Ponto de entrada do benchmarks.jar.
+ * Aceita as mesmas opções da linha de comando do JMH (ex.: "Validacao", -f 1, -p quantidade=1000),
+ * mas por padrão grava o resultado em JSON em benchmarks/target/jmh-result.json, para comparar entre builds.
+ * O caminho sai de onde está o próprio jar (ou target/classes, rodando pela IDE), não da pasta em que o comando
+ * foi executado.
+ */
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        ChainedOptionsBuilder opcoes = new OptionsBuilder().parent(linhaDeComando);
+        if (!linhaDeComando.getResultFormat().hasValue()) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linhaDeComando.getResult().hasValue()) {
+            opcoes.result(resultadoPadrao().toString());
+        }
+        new Runner(opcoes.build()).run();
+    }
+
+    //benchmarks/target/benchmarks.jar ou benchmarks/target/classes -> benchmarks/target/jmh-result.json
+    private static Path resultadoPadrao() throws Exception {
+        Path origem = Paths.get(ExecutarBenchmarks.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        return origem.getParent().resolve("jmh-result.json");
+    }
+}
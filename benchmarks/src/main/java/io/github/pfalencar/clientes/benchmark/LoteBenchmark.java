@@ -0,0 +1,66 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.rest.dto.ResultadoLote;
+import io.github.pfalencar.clientes.service.ClienteLoteService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Importação de "tamanhoLote" clientes: em lote (POST /api/clientes/lote) x um por um (POST /api/clientes)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoteBenchmark {
+
+    @Param({"1000"})
+    private int tamanhoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteRepository repository;
+    private ClienteLoteService loteService;
+    private final AtomicLong proximoNumero = new AtomicLong(1);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = Dados.iniciarAplicacao("logging.level.io.github.pfalencar=WARN");
+        repository = contexto.getBean(ClienteRepository.class);
+        loteService = contexto.getBean(ClienteLoteService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    private List<Cliente> novosClientes() {
+        List<Cliente> clientes = new ArrayList<>(tamanhoLote);
+        for (int i = 0; i < tamanhoLote; i++) {
+            clientes.add(Dados.cliente(proximoNumero.getAndIncrement()));
+        }
+        return clientes;
+    }
+
+    @Benchmark
+    public ResultadoLote emLote() {
+        return loteService.importar(novosClientes());
+    }
+
+    //cada save é uma transação, como cada POST /api/clientes
+    @Benchmark
+    public int umPorUm() {
+        List<Cliente> clientes = novosClientes();
+        for (Cliente cliente : clientes) {
+            repository.save(cliente);
+        }
+        return clientes.size();
+    }
+}
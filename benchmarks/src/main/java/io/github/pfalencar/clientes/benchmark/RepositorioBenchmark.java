@@ -0,0 +1,92 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.projection.ClienteResumo;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//ClienteRepository contra o H2 embarcado, com a base já populada com "quantidade" clientes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositorioBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int quantidade;
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteRepository repository;
+    private int menorId;
+    private int maiorId;
+    //continua a numeração depois da carga inicial, para os CPFs dos saves não repetirem
+    private final AtomicLong proximoNumero = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = Dados.iniciarAplicacao();
+        repository = contexto.getBean(ClienteRepository.class);
+        TransactionTemplate transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        List<Cliente> bloco = new ArrayList<>(1000);
+        for (int i = 1; i <= quantidade; i++) {
+            bloco.add(Dados.cliente(i));
+            if (bloco.size() == 1000 || i == quantidade) {
+                List<Cliente> gravar = new ArrayList<>(bloco);
+                transacao.execute(status -> repository.saveAll(gravar));
+                bloco.clear();
+            }
+        }
+        List<Cliente> primeiro = repository.findByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0, 1), Cliente.class);
+        menorId = primeiro.get(0).getId();
+        maiorId = menorId + quantidade - 1;
+        proximoNumero.set(quantidade + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Cliente save() {
+        return repository.save(Dados.cliente(proximoNumero.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Optional<Cliente> findById() {
+        return repository.findById(ThreadLocalRandom.current().nextInt(menorId, maiorId + 1));
+    }
+
+    //a tabela inteira, como o GET /api/clientes fazia antes da paginação
+    @Benchmark
+    public List<Cliente> findAll() {
+        return repository.findAll();
+    }
+
+    //uma página de 50 a partir de uma posição aleatória (keyset no id)
+    @Benchmark
+    public List<Cliente> paginaPorCursor() {
+        int cursor = ThreadLocalRandom.current().nextInt(menorId, maiorId + 1);
+        return repository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, 51), Cliente.class);
+    }
+
+    @Benchmark
+    public List<ClienteResumo> paginaResumoPorCursor() {
+        int cursor = ThreadLocalRandom.current().nextInt(menorId, maiorId + 1);
+        return repository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, 51), ClienteResumo.class);
+    }
+}
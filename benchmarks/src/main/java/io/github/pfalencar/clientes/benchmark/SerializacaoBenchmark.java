@@ -0,0 +1,46 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+//Custo do Jackson na entrada e saída de um Cliente (inclui o @JsonFormat do LocalDate e o CpfDeserializer)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Cliente cliente;
+    private String json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        //mesmo builder que o Spring Boot usa para montar o ObjectMapper da aplicação (registra o módulo java.time)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        cliente = Dados.cliente(1);
+        cliente.setId(1);
+        cliente.setDataCadastro(LocalDate.of(2020, 5, 1));
+        json = "{\"nome\":\"Cliente Benchmark\",\"cpf\":\"" + Dados.cpf(1) + "\"}";
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cliente);
+    }
+
+    @Benchmark
+    public Cliente desserializar() throws IOException {
+        return objectMapper.readValue(json, Cliente.class);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.pfalencar.clientes.benchmark;
+
+import io.github.pfalencar.clientes.config.InternacionalizacaoConfig;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import javax.validation.ConstraintViolation;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Custo do @Valid do POST/PUT: @NotEmpty, @NotNull e @CPF com as mensagens do messages.properties
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+    private LocalValidatorFactoryBean validator;
+    private Cliente valido;
+    private Cliente invalido;
+
+    @Setup
+    public void setup() {
+        //mesmo validador que a aplicação registra no contexto
+        validator = new InternacionalizacaoConfig().validatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        valido = Dados.cliente(1);
+
+        invalido = new Cliente();
+        invalido.setNome("");
+        invalido.setCpf("12345678900");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Cliente>> clienteValido() {
+        return validator.validate(valido);
+    }
+
+    //inclui a interpolação das mensagens de erro
+    @Benchmark
+    public Set<ConstraintViolation<Cliente>> clienteInvalido() {
+        return validator.validate(invalido);
+    }
+}
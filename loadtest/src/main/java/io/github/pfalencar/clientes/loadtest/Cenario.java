@@ -0,0 +1,56 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+//Misturas de requisições. Os pesos de cada cenário somam 100 (= porcentagem das requisições).
+enum Cenario {
+
+    //uso normal do front: quase tudo leitura, algumas inclusões
+    LEITURA {
+        @Override
+        List<Operacao> operacoes(MassaDados massa) {
+            return Arrays.asList(
+                    new Operacao("GET /clientes/{id}", 70, 200,
+                            () -> Requisicao.get("/api/clientes/" + massa.idExistente())),
+                    new Operacao("GET /clientes (página)", 15, 200,
+                            () -> Requisicao.get("/api/clientes?tamanho=50&cursor=" + massa.idExistente())),
+                    new Operacao("GET /clientes/search", 10, 200,
+                            () -> Requisicao.get("/api/clientes/search?q=carga%20" + massa.idExistente() % 100)),
+                    new Operacao("POST /clientes", 5, 201,
+                            () -> Requisicao.post("/api/clientes", massa.novoClienteJson())));
+        }
+    },
+
+    //importações e integrações gravando: inclusões, alterações e serviços
+    ESCRITA {
+        @Override
+        List<Operacao> operacoes(MassaDados massa) {
+            return Arrays.asList(
+                    new Operacao("POST /clientes", 40, 201,
+                            () -> Requisicao.post("/api/clientes", massa.novoClienteJson())),
+                    new Operacao("PUT /clientes/{id}", 30, 204,
+                            () -> Requisicao.put("/api/clientes/" + massa.idExistente(), massa.novoClienteJson())),
+                    new Operacao("POST /servicos", 20, 201,
+                            () -> Requisicao.post("/api/servicos", massa.servicoJson())),
+                    new Operacao("GET /clientes/{id}", 10, 200,
+                            () -> Requisicao.get("/api/clientes/" + massa.idExistente())));
+        }
+    },
+
+    //client mal configurado mandando dados inválidos: exercita a validação e o ApplicationControllerAdvice
+    VALIDACAO {
+        @Override
+        List<Operacao> operacoes(MassaDados massa) {
+            return Arrays.asList(
+                    new Operacao("POST /clientes inválido", 60, 400,
+                            () -> Requisicao.post("/api/clientes", massa.clienteInvalidoJson())),
+                    new Operacao("POST /servicos inválido", 20, 400,
+                            () -> Requisicao.post("/api/servicos", massa.servicoInvalidoJson())),
+                    new Operacao("GET /clientes/{id}", 20, 200,
+                            () -> Requisicao.get("/api/clientes/" + massa.idExistente())));
+        }
+    };
+
+    abstract List<Operacao> operacoes(MassaDados massa);
+}
@@ -0,0 +1,169 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import io.github.pfalencar.clientes.ClientesApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Ponto de entrada do loadtest.jar. Sobe a aplicação com um H2 em memória próprio numa porta aleatória, popula a base
+ * e roda os cenários (ver Cenario), um depois do outro, cada um com aquecimento antes da medição.
+ *
+ * Opções (todas com valor padrão):
+ *   --cenario=todos        leitura, escrita, validacao ou todos
+ *   --taxa=200             requisições por segundo (chegada fixa, ver GeradorCarga)
+ *   --duracao=30s          tempo de medição de cada cenário
+ *   --aquecimento=10s      tempo de carga antes da medição (JIT, pools, caches), descartado
+ *   --clientes=10000       clientes gravados antes do teste
+ *   --servicos=10000       serviços gravados antes do teste
+ *   --conexoes=32          threads/conexões do gerador
+ *   --saida=target/loadtest pasta do relatório
+ * As demais opções --propriedade=valor vão para a aplicação (ex.: --clientes.async.habilitado=true).
+ *
+ * Relatório: resumo.txt (vazão, taxa de erro, percentis de latência por operação) e um .hgrm por operação com a
+ * distribuição completa do HdrHistogram, que pode ser comparada entre builds.
+ */
+public class ExecutarTesteCarga {
+
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = opcoes(args);
+        List<Cenario> cenarios = cenarios(opcoes.getOrDefault("cenario", "todos"));
+        int taxa = Integer.parseInt(opcoes.getOrDefault("taxa", "200"));
+        Duration duracao = DurationStyle.detectAndParse(opcoes.getOrDefault("duracao", "30s"));
+        Duration aquecimento = DurationStyle.detectAndParse(opcoes.getOrDefault("aquecimento", "10s"));
+        int quantidadeClientes = Integer.parseInt(opcoes.getOrDefault("clientes", "10000"));
+        int quantidadeServicos = Integer.parseInt(opcoes.getOrDefault("servicos", "10000"));
+        int conexoes = Integer.parseInt(opcoes.getOrDefault("conexoes", "32"));
+        Path saida = Paths.get(opcoes.getOrDefault("saida", "target/loadtest"));
+
+        //conexões keep-alive guardadas pelo HttpURLConnection (o padrão é 5)
+        System.setProperty("http.maxConnections", String.valueOf(conexoes));
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(ClientesApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        //todas as requisições saem do mesmo IP; o limite por client derrubaria a carga com 429
+                        "clientes.limite.habilitado=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(args);
+        try {
+            String porta = contexto.getEnvironment().getProperty("local.server.port");
+            GeradorCarga gerador = new GeradorCarga("http://localhost:" + porta, conexoes);
+            System.out.printf("Populando a base: %d clientes, %d serviços%n", quantidadeClientes, quantidadeServicos);
+            MassaDados massa = MassaDados.popular(contexto, quantidadeClientes, quantidadeServicos);
+
+            Files.createDirectories(saida);
+            try (PrintStream resumo = new PrintStream(Files.newOutputStream(saida.resolve("resumo.txt")),
+                    true, StandardCharsets.UTF_8.name())) {
+                resumo.printf("Teste de carga %s - taxa %d req/s, medição %s, aquecimento %s, %d clientes, %d serviços, %d conexões%n",
+                        LocalDateTime.now(), taxa, duracao, aquecimento, quantidadeClientes, quantidadeServicos, conexoes);
+                for (Cenario cenario : cenarios) {
+                    List<Operacao> operacoes = cenario.operacoes(massa);
+                    System.out.printf("Cenário %s: aquecimento de %s%n", cenario, aquecimento);
+                    gerador.executar(operacoes, taxa, aquecimento);
+                    System.out.printf("Cenário %s: medindo por %s a %d req/s%n", cenario, duracao, taxa);
+                    GeradorCarga.Execucao execucao = gerador.executar(operacoes, taxa, duracao);
+                    relatar(cenario, execucao, resumo, saida);
+                }
+            }
+            System.out.println(new String(Files.readAllBytes(saida.resolve("resumo.txt")), StandardCharsets.UTF_8));
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private static void relatar(Cenario cenario, GeradorCarga.Execucao execucao, PrintStream resumo, Path saida)
+            throws IOException {
+        double segundos = execucao.duracaoNanos / 1e9;
+        long total = 0;
+        long erros = 0;
+        Histogram geral = new Histogram(3);
+        for (ResultadoOperacao resultado : execucao.resultados.values()) {
+            total += resultado.total();
+            erros += resultado.erros();
+            geral.add(resultado.latencias);
+        }
+
+        resumo.printf("%n== %s ==%n", cenario);
+        resumo.printf("requisições: %d em %.1f s (%.1f req/s), erros: %d (%.2f%%)%n",
+                total, segundos, total / segundos, erros, total == 0 ? 0 : erros * 100.0 / total);
+        if (execucao.pendentesNoFim > 0) {
+            resumo.printf("ATENÇÃO: %d requisições ainda na fila do gerador no fim (a aplicação não acompanhou a taxa)%n",
+                    execucao.pendentesNoFim);
+        }
+        resumo.printf("%-28s %8s %8s %10s %10s %10s %10s %10s  %s%n",
+                "operação", "total", "erros", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms", "status");
+        for (ResultadoOperacao resultado : execucao.resultados.values()) {
+            linha(resumo, resultado.nome, resultado.total(), resultado.erros(), resultado.latencias,
+                    resultado.porStatus().toString());
+            gravarDistribuicao(resultado.latencias,
+                    saida.resolve(cenario.name().toLowerCase() + "-" + arquivo(resultado.nome) + ".hgrm"));
+        }
+        linha(resumo, "(todas)", total, erros, geral, "");
+        gravarDistribuicao(geral, saida.resolve(cenario.name().toLowerCase() + ".hgrm"));
+    }
+
+    private static void linha(PrintStream resumo, String nome, long total, long erros, Histogram latencias,
+                              String status) {
+        resumo.printf("%-28s %8d %8d", nome, total, erros);
+        for (double percentil : PERCENTIS) {
+            resumo.printf(" %10.2f", latencias.getValueAtPercentile(percentil) / 1000.0);
+        }
+        resumo.printf(" %10.2f  %s%n", latencias.getMaxValue() / 1000.0, status);
+    }
+
+    //distribuição completa em milissegundos (formato .hgrm, aceito pelo HdrHistogram plotter)
+    private static void gravarDistribuicao(Histogram latencias, Path arquivo) throws IOException {
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(arquivo), true, StandardCharsets.UTF_8.name())) {
+            latencias.outputPercentileDistribution(saida, 1000.0);
+        }
+    }
+
+    private static String arquivo(String nomeOperacao) {
+        return Normalizer.normalize(nomeOperacao, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("(^-|-$)", "");
+    }
+
+    private static List<Cenario> cenarios(String valor) {
+        if (valor.equalsIgnoreCase("todos")) {
+            return Arrays.asList(Cenario.values());
+        }
+        List<Cenario> cenarios = new ArrayList<>();
+        for (String nome : valor.split(",")) {
+            cenarios.add(Cenario.valueOf(nome.trim().toUpperCase()));
+        }
+        return cenarios;
+    }
+
+    //--nome=valor -> nome: valor (as propriedades da aplicação também passam por aqui, sem problema)
+    private static Map<String, String> opcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int igual = arg.indexOf('=');
+                opcoes.put(arg.substring(2, igual), arg.substring(igual + 1));
+            }
+        }
+        return opcoes;
+    }
+}
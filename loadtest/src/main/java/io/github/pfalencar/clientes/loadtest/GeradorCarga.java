@@ -0,0 +1,136 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em modelo aberto: as requisições partem numa taxa fixa, no horário previsto, responda a aplicação
+ * rápido ou não (como usuários independentes chegando). Se a aplicação fica lenta, as requisições se acumulam na fila
+ * do gerador e esse tempo de espera entra na latência medida, que é contada a partir do horário previsto de envio.
+ * Assim a lentidão não some da medição (coordinated omission), como aconteceria com N threads em loop fechado.
+ */
+final class GeradorCarga {
+
+    private static final int TIMEOUT_MS = 10_000;
+
+    private final String urlBase;
+    private final int conexoes;
+
+    GeradorCarga(String urlBase, int conexoes) {
+        this.urlBase = urlBase;
+        this.conexoes = conexoes;
+    }
+
+    static final class Execucao {
+        final Map<String, ResultadoOperacao> resultados;
+        final long duracaoNanos;
+        final long pendentesNoFim;
+
+        Execucao(Map<String, ResultadoOperacao> resultados, long duracaoNanos, long pendentesNoFim) {
+            this.resultados = resultados;
+            this.duracaoNanos = duracaoNanos;
+            this.pendentesNoFim = pendentesNoFim;
+        }
+    }
+
+    Execucao executar(List<Operacao> operacoes, int taxaPorSegundo, Duration duracao) throws InterruptedException {
+        Map<String, ResultadoOperacao> resultados = new LinkedHashMap<>();
+        operacoes.forEach(operacao -> resultados.put(operacao.nome, new ResultadoOperacao(operacao.nome)));
+        int pesoTotal = operacoes.stream().mapToInt(operacao -> operacao.peso).sum();
+
+        AtomicInteger numeroThread = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(conexoes, conexoes, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), tarefa -> {
+                    Thread thread = new Thread(tarefa, "carga-" + numeroThread.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo;
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * intervalo;
+            if (previsto >= fim) {
+                break;
+            }
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacao operacao = sortear(operacoes, pesoTotal);
+            Requisicao requisicao = operacao.requisicao.get();
+            ResultadoOperacao resultado = resultados.get(operacao.nome);
+            pool.execute(() -> {
+                int status = enviar(requisicao);
+                long latenciaMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - previsto);
+                resultado.registrar(latenciaMicros, status, status == operacao.statusEsperado);
+            });
+        }
+        long pendentes = pool.getQueue().size();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return new Execucao(resultados, System.nanoTime() - inicio, pendentes);
+    }
+
+    private static Operacao sortear(List<Operacao> operacoes, int pesoTotal) {
+        int sorteio = ThreadLocalRandom.current().nextInt(pesoTotal);
+        for (Operacao operacao : operacoes) {
+            sorteio -= operacao.peso;
+            if (sorteio < 0) {
+                return operacao;
+            }
+        }
+        return operacoes.get(operacoes.size() - 1);
+    }
+
+    //HttpURLConnection reaproveita a conexão (keep-alive) quando a resposta é lida até o fim
+    private int enviar(Requisicao requisicao) {
+        HttpURLConnection conexao = null;
+        try {
+            conexao = (HttpURLConnection) new URL(urlBase + requisicao.caminho).openConnection();
+            conexao.setRequestMethod(requisicao.metodo);
+            conexao.setConnectTimeout(TIMEOUT_MS);
+            conexao.setReadTimeout(TIMEOUT_MS);
+            conexao.setRequestProperty("Accept", "application/json");
+            if (requisicao.corpo != null) {
+                conexao.setDoOutput(true);
+                conexao.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream corpo = conexao.getOutputStream()) {
+                    corpo.write(requisicao.corpo.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = conexao.getResponseCode();
+            InputStream resposta = status >= 400 ? conexao.getErrorStream() : conexao.getInputStream();
+            if (resposta != null) {
+                try (InputStream entrada = resposta) {
+                    byte[] descarte = new byte[8192];
+                    while (entrada.read(descarte) != -1) {
+                        //só consome a resposta
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            if (conexao != null) {
+                conexao.disconnect();
+            }
+            return ResultadoOperacao.FALHA_CONEXAO;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.Servico;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import io.github.pfalencar.clientes.service.ClienteLoteService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Base inicial do teste (clientes e serviços) e geração dos dados de cada requisição.
+final class MassaDados {
+
+    private static final int BLOCO = 1000;
+
+    private final int[] idsClientes;
+    //continua a numeração depois da carga inicial, para os CPFs dos POST/PUT não repetirem
+    private final AtomicLong proximoNumero;
+
+    private MassaDados(int[] idsClientes, long proximoNumero) {
+        this.idsClientes = idsClientes;
+        this.proximoNumero = new AtomicLong(proximoNumero);
+    }
+
+    //grava pela importação em lote, como um client faria, para o cache, o índice de nomes e o feed ficarem coerentes
+    static MassaDados popular(ConfigurableApplicationContext contexto, int quantidadeClientes, int quantidadeServicos) {
+        ClienteLoteService loteService = contexto.getBean(ClienteLoteService.class);
+        ServicoRepository servicoRepository = contexto.getBean(ServicoRepository.class);
+
+        List<Cliente> gravados = new ArrayList<>(quantidadeClientes);
+        List<Cliente> bloco = new ArrayList<>(BLOCO);
+        for (int i = 1; i <= quantidadeClientes; i++) {
+            bloco.add(cliente(i));
+            if (bloco.size() == BLOCO || i == quantidadeClientes) {
+                loteService.importar(bloco);
+                gravados.addAll(bloco);
+                bloco = new ArrayList<>(BLOCO);
+            }
+        }
+        int[] ids = gravados.stream().mapToInt(Cliente::getId).toArray();
+
+        List<Servico> servicos = new ArrayList<>(BLOCO);
+        for (int i = 0; i < quantidadeServicos; i++) {
+            Servico servico = new Servico();
+            servico.setDescricao("Serviço carga " + i);
+            servico.setValor(BigDecimal.valueOf(100 + i % 900));
+            servico.setData(LocalDate.now().minusDays(i % 365));
+            servico.setCliente(gravados.get(i % gravados.size()));
+            servicos.add(servico);
+            if (servicos.size() == BLOCO || i == quantidadeServicos - 1) {
+                servicoRepository.saveAll(servicos);
+                servicos.clear();
+            }
+        }
+        return new MassaDados(ids, quantidadeClientes + 1L);
+    }
+
+    int idExistente() {
+        return idsClientes[ThreadLocalRandom.current().nextInt(idsClientes.length)];
+    }
+
+    String novoClienteJson() {
+        long numero = proximoNumero.getAndIncrement();
+        return "{\"nome\":\"Cliente Carga " + numero + "\",\"cpf\":\"" + cpf(numero) + "\"}";
+    }
+
+    //nome vazio e CPF com dígito verificador errado: dois erros de validação por requisição
+    String clienteInvalidoJson() {
+        return "{\"nome\":\"\",\"cpf\":\"12345678900\"}";
+    }
+
+    String servicoJson() {
+        return "{\"descricao\":\"Serviço carga\",\"valor\":150.00,\"data\":\"01/01/2020\",\"idCliente\":"
+                + idExistente() + "}";
+    }
+
+    //sem descrição, valor negativo e sem data
+    String servicoInvalidoJson() {
+        return "{\"valor\":-1,\"idCliente\":" + idExistente() + "}";
+    }
+
+    static Cliente cliente(long numero) {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Cliente Carga " + numero);
+        cliente.setCpf(cpf(numero));
+        return cliente;
+    }
+
+    //CPF válido (com dígitos verificadores) a partir de um número sequencial, para não repetir no índice único
+    static String cpf(long numero) {
+        int[] digitos = new int[11];
+        long base = numero % 1_000_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = (soma * 10) % 11;
+        return resto == 10 ? 0 : resto;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import java.util.function.Supplier;
+
+//Tipo de requisição de um cenário: o peso define a proporção no sorteio e o status esperado define o que é erro
+//(nos cenários de validação, o 400 é o resultado esperado).
+final class Operacao {
+
+    final String nome;
+    final int peso;
+    final int statusEsperado;
+    final Supplier<Requisicao> requisicao;
+
+    Operacao(String nome, int peso, int statusEsperado, Supplier<Requisicao> requisicao) {
+        this.nome = nome;
+        this.peso = peso;
+        this.statusEsperado = statusEsperado;
+        this.requisicao = requisicao;
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.pfalencar.clientes.loadtest;
+
+//Uma chamada HTTP a fazer: método, caminho (a partir de /api) e corpo JSON opcional
+final class Requisicao {
+
+    final String metodo;
+    final String caminho;
+    final String corpo;
+
+    Requisicao(String metodo, String caminho, String corpo) {
+        this.metodo = metodo;
+        this.caminho = caminho;
+        this.corpo = corpo;
+    }
+
+    static Requisicao get(String caminho) {
+        return new Requisicao("GET", caminho, null);
+    }
+
+    static Requisicao post(String caminho, String corpo) {
+        return new Requisicao("POST", caminho, corpo);
+    }
+
+    static Requisicao put(String caminho, String corpo) {
+        return new Requisicao("PUT", caminho, corpo);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.pfalencar.clientes.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latências (em microssegundos) e contagem por status de uma operação durante a medição
+final class ResultadoOperacao {
+
+    //status usado quando a requisição nem chegou a ter resposta (conexão recusada, timeout)
+    static final int FALHA_CONEXAO = -1;
+
+    final String nome;
+    final Histogram latencias = new ConcurrentHistogram(3);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder erros = new LongAdder();
+    private final Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+
+    ResultadoOperacao(String nome) {
+        this.nome = nome;
+    }
+
+    void registrar(long latenciaMicros, int status, boolean esperado) {
+        latencias.recordValue(Math.max(1, latenciaMicros));
+        total.increment();
+        if (!esperado) {
+            erros.increment();
+        }
+        porStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    long total() {
+        return total.sum();
+    }
+
+    long erros() {
+        return erros.sum();
+    }
+
+    Map<Integer, Long> porStatus() {
+        Map<Integer, Long> copia = new TreeMap<>();
+        porStatus.forEach((status, quantidade) -> copia.put(status, quantidade.sum()));
+        return copia;
+    }
+}
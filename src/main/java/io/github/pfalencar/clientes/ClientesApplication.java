@@ -7,10 +7,14 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.LocalDate;
 
+//@EnableScheduling aqui, e não na configuração de quem agenda: a poda do feed, a limpeza dos baldes do limite e o
+//monitor da réplica não podem parar de rodar porque outra configuração foi desligada
 @SpringBootApplication
+@EnableScheduling
 public class ClientesApplication {
 
     //Para testar se está gravando no BD
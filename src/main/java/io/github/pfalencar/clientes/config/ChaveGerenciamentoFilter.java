@@ -0,0 +1,49 @@
+package io.github.pfalencar.clientes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+//Protege o /actuator/loggers (trocar o nível de log em tempo de execução): só passa a requisição com o header
+//X-Management-Key igual a clientes.gerenciamento.chave. Sem chave configurada o endpoint fica fechado (403).
+//Os outros endpoints do Actuator (health, métricas) continuam abertos como antes.
+@Component
+public class ChaveGerenciamentoFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_CHAVE = "X-Management-Key";
+    private static final String LOGGERS = "/actuator/loggers";
+
+    private final byte[] chave;
+
+    public ChaveGerenciamentoFilter(@Value("${clientes.gerenciamento.chave:}") String chave) {
+        this.chave = chave.trim().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String caminho = request.getRequestURI();
+        return !(caminho.equals(LOGGERS) || caminho.startsWith(LOGGERS + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String enviada = request.getHeader(HEADER_CHAVE);
+        //comparação em tempo constante, para a resposta não entregar quantos caracteres bateram
+        if (chave.length == 0 || enviada == null
+                || !MessageDigest.isEqual(chave, enviada.trim().getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Chave de gerenciamento inválida");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
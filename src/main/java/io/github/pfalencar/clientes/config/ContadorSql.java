@@ -0,0 +1,44 @@
+package io.github.pfalencar.clientes.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conta quantos comandos SQL o Hibernate prepara durante uma requisição.
+ *
+ * O Hibernate chama o inspect() para cada comando antes de enviá-lo ao banco (configurado em
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector). Como essa classe é instanciada pelo próprio
+ * Hibernate e não pelo Spring, o contador da requisição fica em um ThreadLocal que o MetricasInterceptor coloca e
+ * tira da thread. No modo assíncrono o ExecutorOperacoes leva o mesmo contador para a thread que executa a operação.
+ */
+public class ContadorSql implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CONTADOR = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger contador = CONTADOR.get();
+        if (contador != null) {
+            contador.incrementAndGet();
+        }
+        return sql; //não altera o comando, só conta
+    }
+
+    //contador da requisição que está rodando nesta thread (ou null)
+    public static AtomicInteger atual() {
+        return CONTADOR.get();
+    }
+
+    public static void usar(AtomicInteger contador) {
+        if (contador == null) {
+            CONTADOR.remove();
+        } else {
+            CONTADOR.set(contador);
+        }
+    }
+
+    public static void limpar() {
+        CONTADOR.remove();
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.pfalencar.clientes.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Liga as métricas próprias da aplicação nas requisições da API.
+//As métricas padrão (http.server.requests, hikaricp.*, hibernate.*, jvm.*) já vêm do Actuator.
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry registry;
+
+    public MetricasConfig(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new MetricasInterceptor(this.registry)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.pfalencar.clientes.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Registra, por endpoint, quantos comandos SQL cada requisição executou (clientes.sql.requisicao).
+//Em requisições assíncronas o Spring passa duas vezes por aqui (início e retorno do resultado), então o contador
+//fica guardado na própria requisição e só é registrado no afterCompletion final.
+public class MetricasInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ATRIBUTO_CONTADOR = MetricasInterceptor.class.getName() + ".contador";
+
+    private final MeterRegistry registry;
+
+    public MetricasInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AtomicInteger contador = (AtomicInteger) request.getAttribute(ATRIBUTO_CONTADOR);
+        if (contador == null) {
+            contador = new AtomicInteger();
+            request.setAttribute(ATRIBUTO_CONTADOR, contador);
+        }
+        ContadorSql.usar(contador);
+        return true;
+    }
+
+    //a thread do Tomcat é liberada enquanto a operação roda em outra thread
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorSql.limpar();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ContadorSql.limpar();
+        AtomicInteger contador = (AtomicInteger) request.getAttribute(ATRIBUTO_CONTADOR);
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("clientes.sql.requisicao")
+                .description("Comandos SQL executados por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .publishPercentiles(0.5, 0.99)
+                .register(registry)
+                .record(contador == null ? 0 : contador.get());
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.pfalencar.clientes.config;
+
+import io.github.pfalencar.clientes.service.ExecutorOperacoes;
+import io.github.pfalencar.clientes.service.Operacao;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletionException;
+
+//Trata o retorno Operacao dos controllers (ver ExecutorOperacoes).
+//Com clientes.async.habilitado=false executa a operação na hora e passa o valor para os tratadores normais
+//(ResponseEntity, @ResponseBody), como se o método tivesse devolvido o valor direto: nada de despacho assíncrono.
+//Ligado, roda a operação no pool e entrega o resultado por um DeferredResult, como o Spring faz com um
+//CompletableFuture.
+public class OperacaoReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final ExecutorOperacoes executor;
+    private final HandlerMethodReturnValueHandler demais;
+
+    public OperacaoReturnValueHandler(ExecutorOperacoes executor, HandlerMethodReturnValueHandler demais) {
+        this.executor = executor;
+        this.demais = demais;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return Operacao.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+        Operacao<?> operacao = (Operacao<?>) returnValue;
+        if (!executor.isHabilitado()) {
+            //mesma thread; exceções sobem direto para o ApplicationControllerAdvice, como antes
+            Object valor = operacao.executar();
+            demais.handleReturnValue(valor, new ValorDaOperacao(returnType, valor), mavContainer, webRequest);
+            return;
+        }
+        DeferredResult<Object> resultado = new DeferredResult<>();
+        executor.noPool(operacao).whenComplete((valor, erro) -> {
+            if (erro != null) {
+                resultado.setErrorResult(erro instanceof CompletionException && erro.getCause() != null
+                        ? erro.getCause() : erro);
+            } else {
+                resultado.setResult(valor);
+            }
+        });
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(resultado, mavContainer);
+    }
+
+    //o tipo de retorno do método visto como o T de Operacao<T>, para os tratadores escolherem o conversor
+    private static class ValorDaOperacao extends MethodParameter {
+
+        private final Class<?> tipo;
+        private final Type tipoGenerico;
+
+        ValorDaOperacao(MethodParameter original, Object valor) {
+            super(original);
+            ResolvableType tipoDoValor = ResolvableType.forMethodParameter(original).getGeneric();
+            this.tipoGenerico = tipoDoValor.getType();
+            this.tipo = valor != null ? valor.getClass() : tipoDoValor.toClass();
+        }
+
+        ValorDaOperacao(ValorDaOperacao original) {
+            super(original);
+            this.tipo = original.tipo;
+            this.tipoGenerico = original.tipoGenerico;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return tipo;
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return tipoGenerico;
+        }
+
+        @Override
+        public ValorDaOperacao clone() {
+            return new ValorDaOperacao(this);
+        }
+    }
+}
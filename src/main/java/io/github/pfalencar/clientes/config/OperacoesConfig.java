@@ -0,0 +1,39 @@
+package io.github.pfalencar.clientes.config;
+
+import io.github.pfalencar.clientes.service.ExecutorOperacoes;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Coloca o OperacaoReturnValueHandler na frente dos tratadores padrão do Spring MVC. Pelo WebMvcConfigurer ele
+//ficaria depois do tratador do @RestController, que aceita qualquer tipo e escreveria a Operacao como JSON.
+@Configuration
+public class OperacoesConfig {
+
+    //static: BeanPostProcessor não deve depender da instância da configuração
+    @Bean
+    public static BeanPostProcessor operacaoReturnValueHandler(ObjectProvider<ExecutorOperacoes> executor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter) {
+                    RequestMappingHandlerAdapter adapter = (RequestMappingHandlerAdapter) bean;
+                    List<HandlerMethodReturnValueHandler> padrao = adapter.getReturnValueHandlers();
+                    List<HandlerMethodReturnValueHandler> tratadores = new ArrayList<>(padrao.size() + 1);
+                    tratadores.add(new OperacaoReturnValueHandler(executor.getObject(),
+                            new HandlerMethodReturnValueHandlerComposite().addHandlers(padrao)));
+                    tratadores.addAll(padrao);
+                    adapter.setReturnValueHandlers(tratadores);
+                }
+                return bean;
+            }
+        };
+    }
+}
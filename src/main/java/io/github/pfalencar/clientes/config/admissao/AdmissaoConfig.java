@@ -0,0 +1,32 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+//Limite de requisições por client na API (ver LimitadorRequisicoes).
+//@Order: este WebMvcConfigurer roda antes dos outros, então o interceptor fica primeiro na fila e uma requisição
+//recusada não gasta nada nos demais
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissaoConfig implements WebMvcConfigurer {
+
+    private final LimitadorRequisicoes limitador;
+    private final Set<String> chavesApi;
+
+    public AdmissaoConfig(LimitadorRequisicoes limitador,
+                          @Value("${clientes.limite.chaves-api:}") Set<String> chavesApi) {
+        this.limitador = limitador;
+        this.chavesApi = chavesApi;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissaoInterceptor(limitador, chavesApi)).addPathPatterns("/api/**");
+    }
+}
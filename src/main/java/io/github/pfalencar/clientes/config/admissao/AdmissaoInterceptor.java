@@ -0,0 +1,59 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import io.github.pfalencar.clientes.rest.exception.LimiteRequisicoesException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+
+//Cobra o custo da requisição do balde do client antes de chegar no controller. Passando do limite, lança
+//LimiteRequisicoesException, que o ApplicationControllerAdvice transforma em 429 com Retry-After.
+//Só uma X-Api-Key cadastrada (clientes.limite.chaves-api) ganha balde próprio; qualquer outro valor conta pelo IP,
+//senão bastaria trocar a chave a cada requisição para nunca ser limitado.
+public class AdmissaoInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER_CHAVE = "X-Api-Key";
+
+    private final LimitadorRequisicoes limitador;
+    private final Set<String> chavesConhecidas;
+
+    public AdmissaoInterceptor(LimitadorRequisicoes limitador, Set<String> chavesConhecidas) {
+        this.limitador = limitador;
+        this.chavesConhecidas = chavesConhecidas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //a volta de um endpoint assíncrono (Operacao no pool, DeferredResult) passa aqui de novo e já foi cobrada
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod metodo = (HandlerMethod) handler;
+        long retryAfter = limitador.admitir(client(request), custo(metodo),
+                metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName());
+        if (retryAfter > 0) {
+            throw new LimiteRequisicoesException(retryAfter);
+        }
+        return true;
+    }
+
+    String client(HttpServletRequest request) {
+        String chave = request.getHeader(HEADER_CHAVE);
+        if (chave != null && chavesConhecidas.contains(chave.trim())) {
+            return "chave:" + chave.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static int custo(HandlerMethod metodo) {
+        CustoRequisicao custo = metodo.getMethodAnnotation(CustoRequisicao.class);
+        if (custo == null) {
+            custo = AnnotatedElementUtils.findMergedAnnotation(metodo.getBeanType(), CustoRequisicao.class);
+        }
+        return custo == null ? 1 : Math.max(0, custo.value());
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de tokens sem lock, guardado num único AtomicLong.
+ *
+ * Em vez de guardar "tokens restantes + último reabastecimento" (dois valores, que pediriam lock), guarda o instante
+ * em que o balde estaria cheio de novo se ninguém mais pedisse nada (algoritmo GCRA, equivalente ao balde de tokens).
+ * Cada pedido empurra esse instante para frente (custo x intervalo de um token) e só é aceito se o balde não passar
+ * da capacidade. A atualização é um compareAndSet; em disputa só tenta de novo.
+ */
+final class BaldeTokens {
+
+    //instante (System.nanoTime) em que o balde volta a ficar cheio
+    private final AtomicLong cheioEm;
+
+    BaldeTokens(long agora) {
+        this.cheioEm = new AtomicLong(agora);
+    }
+
+    /**
+     * @return 0 quando aceitou (e consumiu os tokens), senão quantos nanos esperar até ter tokens suficientes
+     */
+    long consumir(int custo, long nanosPorToken, long capacidadeNanos, long agora) {
+        long incremento = custo * nanosPorToken;
+        while (true) {
+            long atual = cheioEm.get();
+            long novo = Math.max(atual, agora) + incremento;
+            long excesso = novo - agora - capacidadeNanos;
+            if (excesso > 0) {
+                return excesso;
+            }
+            if (cheioEm.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    //sem uso há tempo suficiente para estar cheio: pode ser descartado (um balde novo começa cheio)
+    boolean cheio(long agora) {
+        return cheioEm.get() <= agora;
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import java.lang.annotation.*;
+
+//Quantos tokens do balde do client a requisição consome (ver LimitadorRequisicoes). Sem a anotação o custo é 1.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CustoRequisicao {
+
+    int value();
+}
@@ -0,0 +1,81 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controle de admissão por client da API: cada client (X-Api-Key cadastrada ou, sem ela, o IP) tem o seu balde
+ * de tokens.
+ *
+ * - clientes.limite.tokens-por-segundo: ritmo sustentado de cada client;
+ * - clientes.limite.capacidade: rajada máxima (tamanho do balde);
+ * - o custo de cada endpoint vem de @CustoRequisicao (listagem e exportação custam mais que buscar por id).
+ *
+ * Os baldes ficam num ConcurrentHashMap (sem lock global) e cada balde é um AtomicLong (BaldeTokens), então
+ * milhares de clients não disputam entre si. Baldes parados (cheios) são descartados de tempos em tempos.
+ * Métricas: clientes.limite.rejeicoes (por endpoint) e clientes.limite.baldes.
+ */
+@Slf4j
+@Component
+public class LimitadorRequisicoes {
+
+    private final boolean habilitado;
+    private final long nanosPorToken;
+    private final long capacidadeNanos;
+    private final ConcurrentMap<String, BaldeTokens> baldes = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    public LimitadorRequisicoes(@Value("${clientes.limite.habilitado:false}") boolean habilitado,
+                                @Value("${clientes.limite.tokens-por-segundo:50}") int tokensPorSegundo,
+                                @Value("${clientes.limite.capacidade:100}") int capacidade,
+                                MeterRegistry registry) {
+        this.habilitado = habilitado;
+        this.nanosPorToken = TimeUnit.SECONDS.toNanos(1) / tokensPorSegundo;
+        this.capacidadeNanos = capacidade * nanosPorToken;
+        this.registry = registry;
+        Gauge.builder("clientes.limite.baldes", baldes, ConcurrentMap::size)
+                .description("Clients com balde de tokens em memória")
+                .register(registry);
+    }
+
+    /**
+     * @return 0 quando a requisição pode seguir, senão em quantos segundos o client pode tentar de novo
+     */
+    public long admitir(String client, int custo, String endpoint) {
+        if (!habilitado) {
+            return 0;
+        }
+        long agora = System.nanoTime();
+        BaldeTokens balde = baldes.computeIfAbsent(client, chave -> new BaldeTokens(agora));
+        long espera = balde.consumir(custo, nanosPorToken, capacidadeNanos, agora);
+        if (espera == 0) {
+            return 0;
+        }
+        Counter.builder("clientes.limite.rejeicoes")
+                .description("Requisições recusadas com 429 pelo limite por client")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .increment();
+        //arredonda para cima: Retry-After é em segundos inteiros
+        return Math.max(1, (espera + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    //Um balde cheio é igual a um balde novo, então pode sair do mapa. Se o client voltar exatamente nesse
+    //instante, no máximo uma requisição é contada num balde já descartado.
+    @Scheduled(fixedDelayString = "${clientes.limite.intervalo-limpeza-ms:60000}")
+    public void descartarBaldesParados() {
+        long agora = System.nanoTime();
+        int antes = baldes.size();
+        baldes.entrySet().removeIf(balde -> balde.getValue().cheio(agora));
+        log.debug("Baldes de tokens: {} descartados, {} em uso", antes - baldes.size(), baldes.size());
+    }
+}
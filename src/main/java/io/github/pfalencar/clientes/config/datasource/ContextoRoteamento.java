@@ -0,0 +1,96 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.util.function.Supplier;
+
+/**
+ * Estado da requisição atual usado pelo DataSourceRoteado para decidir se uma leitura pode ir para a réplica.
+ *
+ * Leitura da própria escrita (read-your-writes): depois que a requisição grava algo, o resto dela lê do primário e
+ * a resposta leva o cookie clientes-primario-ate (até quando o mesmo client deve continuar lendo do primário).
+ * Assim o front não enxerga a réplica "voltando no tempo" logo depois de salvar.
+ *
+ * Fica em ThreadLocal (colocado pelo RoteamentoInterceptor). Sem requisição (jobs, carga inicial) não há estado e
+ * vale só o monitor de atraso da réplica. Com o roteamento desligado tudo aqui é inofensivo.
+ */
+public final class ContextoRoteamento {
+
+    public static final String COOKIE = "clientes-primario-ate";
+
+    private static final ThreadLocal<Estado> ESTADO = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARIO_OBRIGATORIO = new ThreadLocal<>();
+
+    private ContextoRoteamento() {
+    }
+
+    public static class Estado {
+
+        private final HttpServletResponse response;
+        private final long janelaMs;
+        private volatile boolean forcarPrimario;
+        private volatile boolean cookieEnviado;
+
+        public Estado(HttpServletResponse response, long janelaMs, boolean forcarPrimario) {
+            this.response = response;
+            this.janelaMs = janelaMs;
+            this.forcarPrimario = forcarPrimario;
+        }
+    }
+
+    public static Estado atual() {
+        return ESTADO.get();
+    }
+
+    public static void usar(Estado estado) {
+        if (estado == null) {
+            ESTADO.remove();
+        } else {
+            ESTADO.set(estado);
+        }
+    }
+
+    public static void limpar() {
+        ESTADO.remove();
+    }
+
+    public static boolean forcarPrimario() {
+        if (Boolean.TRUE.equals(PRIMARIO_OBRIGATORIO.get())) {
+            return true;
+        }
+        Estado estado = ESTADO.get();
+        return estado != null && estado.forcarPrimario;
+    }
+
+    //chamado depois do commit de uma gravação
+    public static void registrarEscrita() {
+        Estado estado = ESTADO.get();
+        if (estado == null) {
+            return;
+        }
+        estado.forcarPrimario = true;
+        if (!estado.cookieEnviado && estado.response != null && !estado.response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis() + estado.janelaMs));
+            cookie.setPath("/api");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, estado.janelaMs / 1000));
+            estado.response.addCookie(cookie);
+            estado.cookieEnviado = true;
+        }
+    }
+
+    //executa a operação lendo sempre do primário (verificações que não podem ver dado atrasado)
+    public static <T> T noPrimario(Supplier<T> operacao) {
+        Boolean anterior = PRIMARIO_OBRIGATORIO.get();
+        PRIMARIO_OBRIGATORIO.set(Boolean.TRUE);
+        try {
+            return operacao.get();
+        } finally {
+            if (anterior == null) {
+                PRIMARIO_OBRIGATORIO.remove();
+            } else {
+                PRIMARIO_OBRIGATORIO.set(anterior);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Escolhe o pool de cada conexão: transações somente leitura (findAll, findById, buscas, feed, exportação) vão para
+ * a réplica; o resto vai para o primário. A leitura também volta para o primário quando a réplica está atrasada
+ * (MonitorReplica) ou quando a requisição precisa ler a própria escrita (ContextoRoteamento).
+ *
+ * Fica atrás de um LazyConnectionDataSourceProxy: a conexão real só é pedida no primeiro comando, quando a
+ * transação já está marcada como somente leitura.
+ *
+ * Uma sessão do Hibernate que lê da réplica passa a usar CacheMode.GET: lê do cache de segundo nível, mas não
+ * grava nele. Senão uma linha atrasada da réplica voltaria para o cache logo depois da gravação no primário ter
+ * invalidado a região, e ficaria lá até o TTL.
+ */
+public class DataSourceRoteado extends AbstractRoutingDataSource {
+
+    public enum Destino { PRIMARIO, REPLICA }
+
+    private final MonitorReplica monitorReplica;
+
+    public DataSourceRoteado(MonitorReplica monitorReplica) {
+        this.monitorReplica = monitorReplica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean leitura = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (leitura && !ContextoRoteamento.forcarPrimario() && monitorReplica.replicaEmDia()) {
+            naoGravarNoCacheSegundoNivel();
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+
+    //a sessão da transação atual fica registrada pelo JpaTransactionManager antes do primeiro comando
+    private static void naoGravarNoCacheSegundoNivel() {
+        for (Object recurso : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (recurso instanceof EntityManagerHolder) {
+                ((EntityManagerHolder) recurso).getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mede o atraso da réplica comparando a última sequencia de alteração (Cliente.sequencia / ClienteExcluido) nos dois
+ * bancos. Passando de clientes.datasource.replica.atraso-maximo alterações, ou se a réplica não responder, as
+ * leituras vão para o primário até ela alcançar. Até a primeira verificação a réplica não é usada.
+ *
+ * Métricas: clientes.replica.atraso (em alterações) e clientes.replica.em.dia (1/0).
+ */
+@Slf4j
+public class MonitorReplica implements MeterBinder {
+
+    private static final String ULTIMA_SEQUENCIA = "select coalesce(max(sequencia), 0) from cliente";
+    private static final String ULTIMA_EXCLUSAO = "select coalesce(max(sequencia), 0) from cliente_excluido";
+
+    private final JdbcTemplate primario;
+    private final JdbcTemplate replica;
+    private final long atrasoMaximo;
+    private volatile boolean replicaEmDia = false;
+    private volatile long atraso = -1;
+
+    public MonitorReplica(DataSource primario, DataSource replica, long atrasoMaximo) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = new JdbcTemplate(replica);
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    public boolean replicaEmDia() {
+        return replicaEmDia;
+    }
+
+    @Scheduled(fixedDelayString = "${clientes.datasource.replica.intervalo-verificacao-ms:1000}")
+    public void verificar() {
+        boolean estavaEmDia = replicaEmDia;
+        try {
+            atraso = ultimaAlteracao(primario) - ultimaAlteracao(replica);
+            replicaEmDia = atraso <= atrasoMaximo;
+        } catch (DataAccessException e) {
+            atraso = -1;
+            replicaEmDia = false;
+            if (estavaEmDia) {
+                log.warn("Réplica indisponível, leituras indo para o primário: {}", e.getMessage());
+            }
+            return;
+        }
+        if (estavaEmDia != replicaEmDia) {
+            log.info("Réplica {} (atraso de {} alterações)", replicaEmDia ? "em dia" : "atrasada", atraso);
+        }
+    }
+
+    private static long ultimaAlteracao(JdbcTemplate banco) {
+        Long clientes = banco.queryForObject(ULTIMA_SEQUENCIA, Long.class);
+        Long exclusoes = banco.queryForObject(ULTIMA_EXCLUSAO, Long.class);
+        return Math.max(clientes, exclusoes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("clientes.replica.atraso", this, monitor -> monitor.atraso)
+                .description("Alterações que a réplica ainda não recebeu (-1 = indisponível)")
+                .register(registry);
+        Gauge.builder("clientes.replica.em.dia", this, monitor -> monitor.replicaEmDia ? 1 : 0)
+                .description("1 quando as leituras estão indo para a réplica")
+                .register(registry);
+    }
+}
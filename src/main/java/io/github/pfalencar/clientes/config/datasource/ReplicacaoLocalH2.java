@@ -0,0 +1,114 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Substituto de replicação para desenvolvimento (clientes.datasource.replica.simular-replicacao=true).
+ *
+ * Cria na réplica o mesmo esquema do primário (SCRIPT NODATA do H2) e, a cada
+ * clientes.datasource.replica.intervalo-replicacao-ms, copia todas as linhas das tabelas numa única transação da
+ * réplica (quem lê vê a cópia anterior inteira ou a nova inteira). Cópia completa a cada ciclo: serve para
+ * enxergar o atraso e o roteamento funcionando, não para volume de produção, onde quem replica é o próprio banco.
+ */
+@Slf4j
+public class ReplicacaoLocalH2 {
+
+    //ordem de inserção (servico referencia cliente); a exclusão usa a ordem inversa
+    private static final List<String> TABELAS = Arrays.asList("cliente", "cliente_excluido", "servico");
+    private static final int TAMANHO_LOTE = 500;
+
+    private final JdbcTemplate primario;
+    private final DataSource replica;
+    private volatile boolean esquemaCriado = false;
+
+    public ReplicacaoLocalH2(DataSource primario, DataSource replica) {
+        this.primario = new JdbcTemplate(primario);
+        this.replica = replica;
+    }
+
+    //depois que o Hibernate criou as tabelas no primário
+    @EventListener(ApplicationStartedEvent.class)
+    public void criarEsquema() {
+        JdbcTemplate destino = new JdbcTemplate(replica);
+        for (String comando : primario.queryForList("SCRIPT NODATA", String.class)) {
+            if (!comando.startsWith("--")) {
+                destino.execute(comando);
+            }
+        }
+        esquemaCriado = true;
+        log.info("Esquema copiado para a réplica local");
+    }
+
+    @Scheduled(fixedDelayString = "${clientes.datasource.replica.intervalo-replicacao-ms:2000}")
+    public void replicar() throws SQLException {
+        if (!esquemaCriado) {
+            return;
+        }
+        try (Connection destino = replica.getConnection()) {
+            destino.setAutoCommit(false);
+            try {
+                List<String> inversa = new ArrayList<>(TABELAS);
+                Collections.reverse(inversa);
+                for (String tabela : inversa) {
+                    try (PreparedStatement delete = destino.prepareStatement("delete from " + tabela)) {
+                        delete.executeUpdate();
+                    }
+                }
+                for (String tabela : TABELAS) {
+                    copiar(tabela, destino);
+                }
+                destino.commit();
+            } catch (SQLException | RuntimeException e) {
+                destino.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void copiar(String tabela, Connection destino) {
+        primario.query("select * from " + tabela, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            ResultSetMetaData metaData = rs.getMetaData();
+            int colunas = metaData.getColumnCount();
+            StringBuilder insert = new StringBuilder("insert into ").append(tabela).append(" values (?");
+            for (int i = 1; i < colunas; i++) {
+                insert.append(", ?");
+            }
+            insert.append(')');
+
+            try (PreparedStatement ps = destino.prepareStatement(insert.toString())) {
+                int pendentes = 0;
+                do {
+                    for (int i = 1; i <= colunas; i++) {
+                        ps.setObject(i, rs.getObject(i));
+                    }
+                    ps.addBatch();
+                    if (++pendentes == TAMANHO_LOTE) {
+                        ps.executeBatch();
+                        pendentes = 0;
+                    }
+                } while (rs.next());
+                if (pendentes > 0) {
+                    ps.executeBatch();
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Separação de leitura e escrita entre dois bancos. Só é ativada quando existe uma réplica configurada
+ * (clientes.datasource.replica.jdbc-url); sem ela a aplicação usa o DataSource padrão do Boot, como antes.
+ *
+ * - primário: spring.datasource.* (pool Hikari "primario")
+ * - réplica: clientes.datasource.replica.* (pool Hikari "replica", aceita as propriedades do Hikari)
+ * - DataSource da aplicação (JPA, JdbcTemplate): DataSourceRoteado atrás de um LazyConnectionDataSourceProxy
+ *
+ * Para testar localmente: profile "replica" (application-replica.properties), que sobe dois H2 em memória e copia
+ * o primário para a réplica de tempos em tempos (ReplicacaoLocalH2).
+ */
+@Configuration
+@ConditionalOnProperty("clientes.datasource.replica.jdbc-url")
+public class RoteamentoDataSourceConfig implements WebMvcConfigurer {
+
+    @Value("${clientes.datasource.replica.janela-leitura-pos-escrita:5s}")
+    private Duration janelaLeituraPosEscrita;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("clientes.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    //@Lazy(false): com spring.main.lazy-initialization=true (profile prod) o @Scheduled nunca rodaria
+    @Bean
+    @Lazy(false)
+    public MonitorReplica monitorReplica(@Qualifier("primarioDataSource") DataSource primario,
+                                         @Qualifier("replicaDataSource") DataSource replica,
+                                         @Value("${clientes.datasource.replica.atraso-maximo:50}") long atrasoMaximo) {
+        return new MonitorReplica(primario, replica, atrasoMaximo);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MonitorReplica monitorReplica) {
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(DataSourceRoteado.Destino.PRIMARIO, primario);
+        destinos.put(DataSourceRoteado.Destino.REPLICA, replica);
+
+        DataSourceRoteado roteado = new DataSourceRoteado(monitorReplica);
+        roteado.setTargetDataSources(destinos);
+        roteado.setDefaultTargetDataSource(primario);
+        roteado.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteado);
+    }
+
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty("clientes.datasource.replica.simular-replicacao")
+    public ReplicacaoLocalH2 replicacaoLocalH2(@Qualifier("primarioDataSource") DataSource primario,
+                                               @Qualifier("replicaDataSource") DataSource replica) {
+        return new ReplicacaoLocalH2(primario, replica);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RoteamentoInterceptor(janelaLeituraPosEscrita.toMillis())).addPathPatterns("/api/**");
+    }
+}
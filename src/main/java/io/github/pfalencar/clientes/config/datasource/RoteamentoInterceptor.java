@@ -0,0 +1,54 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+//Abre o ContextoRoteamento de cada requisição. Se o client gravou algo há pouco (cookie clientes-primario-ate ainda
+//válido), as leituras desta requisição já começam no primário.
+public class RoteamentoInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ATRIBUTO_ESTADO = RoteamentoInterceptor.class.getName() + ".estado";
+
+    private final long janelaMs;
+
+    public RoteamentoInterceptor(long janelaMs) {
+        this.janelaMs = janelaMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContextoRoteamento.Estado estado = (ContextoRoteamento.Estado) request.getAttribute(ATRIBUTO_ESTADO);
+        if (estado == null) {
+            estado = new ContextoRoteamento.Estado(response, janelaMs, gravouRecentemente(request));
+            request.setAttribute(ATRIBUTO_ESTADO, estado);
+        }
+        ContextoRoteamento.usar(estado);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContextoRoteamento.limpar();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ContextoRoteamento.limpar();
+    }
+
+    private static boolean gravouRecentemente(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, ContextoRoteamento.COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
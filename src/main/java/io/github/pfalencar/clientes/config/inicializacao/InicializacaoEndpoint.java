@@ -0,0 +1,18 @@
+package io.github.pfalencar.clientes.config.inicializacao;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+//GET /actuator/inicializacao: tempos da última inicialização (ver TemposInicializacao)
+@Component
+@Endpoint(id = "inicializacao")
+public class InicializacaoEndpoint {
+
+    @ReadOperation
+    public Map<String, Object> tempos() {
+        return TemposInicializacao.relatorio();
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.pfalencar.clientes.config.inicializacao;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Marca o tempo da primeira requisição da API (/api/**). Depois dela o filtro só consulta um AtomicBoolean.
+@Component
+public class PrimeiraRequisicaoFilter extends OncePerRequestFilter {
+
+    private final AtomicBoolean registrada = new AtomicBoolean();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return registrada.get() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (registrada.compareAndSet(false, true)) {
+                TemposInicializacao.registrarPrimeiraRequisicao(inicio, System.nanoTime());
+            }
+        }
+    }
+}
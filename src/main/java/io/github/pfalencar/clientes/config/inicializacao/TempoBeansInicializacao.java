@@ -0,0 +1,30 @@
+package io.github.pfalencar.clientes.config.inicializacao;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Mede a inicialização de cada bean (entre o antes e o depois dos callbacks de init). É onde o
+//entityManagerFactory sobe o Hibernate e o flywayInitializer roda as migrações.
+@Component
+public class TempoBeansInicializacao implements BeanPostProcessor {
+
+    private final Map<String, Long> inicioPorBean = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String nome) {
+        inicioPorBean.put(nome, System.nanoTime());
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nome) {
+        Long inicio = inicioPorBean.remove(nome);
+        if (inicio != null) {
+            TemposInicializacao.registrarBean(nome, System.nanoTime() - inicio);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.pfalencar.clientes.config.inicializacao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.SmartApplicationListener;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de inicialização da aplicação, por fase, até a primeira resposta da API.
+ *
+ * - jvm: do início da JVM até o SpringApplication começar (classpath, main)
+ * - preparacao: ambiente, properties e criação do contexto
+ * - refresh: criação dos beans (JPA, Flyway, Tomcat...); os beans mais lentos aparecem em "beansMaisLentos"
+ * - runners: ApplicationRunner/CommandLineRunner (ex.: carga do IndiceNomeClientes)
+ * - primeiraRequisicao: da aplicação pronta até o fim da primeira resposta em /api/**
+ * - ateProntaMs / atePrimeiraRespostaMs: totais contados do início da JVM
+ *
+ * Registrado pelo META-INF/spring.factories (precisa ouvir eventos de antes do contexto existir), por isso o estado
+ * é estático. Publicado no endpoint /actuator/inicializacao e no log.
+ */
+@Slf4j
+public class TemposInicializacao implements SmartApplicationListener {
+
+    //só entram no relatório os beans que levaram pelo menos isto para inicializar
+    private static final long MINIMO_BEAN_MS = 10;
+    private static final int MAXIMO_BEANS = 10;
+
+    private static volatile long jvmMs;
+    private static volatile long inicio;
+    private static volatile long contextoPreparado;
+    private static volatile long contextoAtualizado;
+    private static volatile long iniciada;
+    private static volatile long pronta;
+    private static volatile long primeiraRequisicaoInicio;
+    private static volatile long primeiraRequisicaoFim;
+    private static final Map<String, Long> TEMPO_BEANS = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean supportsEventType(Class<? extends ApplicationEvent> tipo) {
+        return ApplicationStartingEvent.class.isAssignableFrom(tipo)
+                || ApplicationPreparedEvent.class.isAssignableFrom(tipo)
+                || ContextRefreshedEvent.class.isAssignableFrom(tipo)
+                || ApplicationStartedEvent.class.isAssignableFrom(tipo)
+                || ApplicationReadyEvent.class.isAssignableFrom(tipo);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent evento) {
+        long agora = System.nanoTime();
+        if (evento instanceof ApplicationStartingEvent) {
+            jvmMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            inicio = agora;
+            contextoPreparado = contextoAtualizado = iniciada = pronta = 0;
+            primeiraRequisicaoInicio = primeiraRequisicaoFim = 0;
+            TEMPO_BEANS.clear();
+        } else if (evento instanceof ApplicationPreparedEvent) {
+            contextoPreparado = agora;
+        } else if (evento instanceof ContextRefreshedEvent) {
+            //só o contexto principal (o Actuator pode ter um contexto filho)
+            if (((ContextRefreshedEvent) evento).getApplicationContext().getParent() == null && contextoAtualizado == 0) {
+                contextoAtualizado = agora;
+            }
+        } else if (evento instanceof ApplicationStartedEvent) {
+            iniciada = agora;
+        } else if (evento instanceof ApplicationReadyEvent) {
+            pronta = agora;
+            log.info("Inicialização: {}", relatorio());
+        }
+    }
+
+    static void registrarBean(String nome, long nanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (ms >= MINIMO_BEAN_MS) {
+            TEMPO_BEANS.put(nome, ms);
+        }
+    }
+
+    //chamado uma vez só, pelo PrimeiraRequisicaoFilter
+    static void registrarPrimeiraRequisicao(long inicioNanos, long fimNanos) {
+        primeiraRequisicaoInicio = inicioNanos;
+        primeiraRequisicaoFim = fimNanos;
+        log.info("Primeira requisição respondida: {}", relatorio());
+    }
+
+    public static Map<String, Object> relatorio() {
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("jvmMs", jvmMs);
+        relatorio.put("preparacaoMs", intervalo(inicio, contextoPreparado));
+        relatorio.put("refreshMs", intervalo(contextoPreparado, contextoAtualizado));
+        relatorio.put("runnersMs", intervalo(iniciada, pronta));
+        relatorio.put("ateProntaMs", pronta == 0 ? null : jvmMs + intervalo(inicio, pronta));
+        relatorio.put("esperaPrimeiraRequisicaoMs", intervalo(pronta, primeiraRequisicaoInicio));
+        relatorio.put("primeiraRequisicaoMs", intervalo(primeiraRequisicaoInicio, primeiraRequisicaoFim));
+        relatorio.put("atePrimeiraRespostaMs",
+                primeiraRequisicaoFim == 0 ? null : jvmMs + intervalo(inicio, primeiraRequisicaoFim));
+        relatorio.put("beansMaisLentos", beansMaisLentos());
+        return relatorio;
+    }
+
+    private static Long intervalo(long de, long ate) {
+        if (de == 0 || ate == 0) {
+            return null;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(ate - de);
+    }
+
+    //tempo de inicialização de cada bean (afterPropertiesSet/@PostConstruct); podem se sobrepor quando um bean
+    //inicializa outros
+    private static Map<String, Long> beansMaisLentos() {
+        List<Map.Entry<String, Long>> beans = new ArrayList<>(TEMPO_BEANS.entrySet());
+        beans.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> maisLentos = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> bean : beans.subList(0, Math.min(MAXIMO_BEANS, beans.size()))) {
+            maisLentos.put(bean.getKey(), bean.getValue());
+        }
+        return maisLentos;
+    }
+}
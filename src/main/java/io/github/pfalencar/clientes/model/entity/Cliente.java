@@ -1,15 +1,32 @@
 package io.github.pfalencar.clientes.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.github.pfalencar.clientes.util.CpfDeserializer;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.br.CPF;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+//índice único no cpf: garante que não existem dois clientes com o mesmo CPF e deixa a busca por CPF indexada
+//índice na sequencia: o feed de alterações (GET /api/clientes/changes) lê "sequencia > token" por ele
+@Table(indexes = {
+        @Index(name = "ux_cliente_cpf", columnList = "cpf", unique = true),
+        @Index(name = "ix_cliente_sequencia", columnList = "sequencia")
+})
+//cache de segundo nível: findById, os carregamentos de Servico.cliente e as consultas cacheáveis do
+//ClienteRepository pegam a entidade da memória. Os UPDATE/DELETE condicionais do ClienteService tiram só o cliente
+//alterado daqui (ver GravacaoCondicionalClienteImpl), então nunca sobra versão antiga.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter@Setter  //depois de importar a biblioteca lombok no pom.xml consigo utilizar estas annotations.
 @Data
 @NoArgsConstructor
@@ -17,8 +34,12 @@ import java.time.LocalDate;
 //@Builder
 public class Cliente {
 
+    //IDENTITY deixava para o banco fazer o autoincremento, mas assim o Hibernate precisa executar cada INSERT na hora
+    //para descobrir o id e não consegue agrupar os inserts em batch JDBC.
+    //Com SEQUENCE + allocationSize o Hibernate reserva 50 ids por ida ao banco e pode mandar os inserts em lote.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) //IDENTITY deixa para o banco fazer o autoincremento.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "cliente_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, length = 150) //201 created com requisição "nome":"", mas erro 500 sem o atributo na requisição.
@@ -28,12 +49,33 @@ public class Cliente {
     @Column(nullable = false, length = 11)
     @NotNull(message = "{campo.cpf.obrigatorio}") //poderia colocar a mensagem direto aqui, mas fica chumbado.
     @CPF(message = "{campo.cpf.invalido}") //as chaves indica que é um expressão que deve ser interpolada.
+    @JsonDeserialize(using = CpfDeserializer.class) //tira a pontuação já na leitura do JSON
     private String cpf;
 
     @Column(name = "data_cadastro", updatable = false)
     @JsonFormat(pattern = "dd/MM/yyyy")
     private LocalDate dataCadastro;
 
+    //Versão para controle de concorrência otimista: cada alteração soma 1.
+    //Vai para o front como ETag do GET /api/clientes/{id} e volta no If-Match do PUT/DELETE.
+    //Só leitura no JSON: quem define a versão é o banco.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer versao;
+
+    //Momento e número da última alteração (inclusão ou alteração) do cliente.
+    //A sequencia vem da sequence alteracao_cliente_seq, a mesma das exclusões (ClienteExcluido), então numera
+    //todas as mudanças da base (na ordem em que foram pegas, não na dos commits: ver SequenciaAlteracoes).
+    //É o que o front usa como token no GET /api/clientes/changes.
+    //Preenchidos pelo ClienteService / ClienteLoteService, não pelo JSON.
+    @Column(name = "ultima_alteracao")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant ultimaAlteracao;
+
+    @Column
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long sequencia;
+
 //Antes de persistir no BD, executa esse método
     @PrePersist
     public void prePersist () {
@@ -0,0 +1,65 @@
+package io.github.pfalencar.clientes.model.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Registro ("lápide") de um cliente excluído, para o feed de alterações avisar o front que o cliente saiu.
+ * A chave é a própria sequencia da alteração, tirada da mesma sequence usada no Cliente.sequencia.
+ *
+ * A sequence só garante valores únicos e crescentes na ordem em que foram pegos, não na ordem dos commits: quem
+ * pega a sequencia 10 pode commitar depois de quem pegou a 11. Quem garante que o feed não pula uma alteração é o
+ * limite seguro da SequenciaAlteracoes. As lápides mais velhas que clientes.feed.retencao-exclusoes são apagadas
+ * pelo FeedAlteracoesClientes.
+ */
+@Entity
+@Table(name = "cliente_excluido")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ClienteExcluido implements Persistable<Long> {
+
+    //atribuída pelo ClienteService com SequenciaAlteracoes.proxima(), para entrar no controle de pendentes do feed
+    @Id
+    private Long sequencia;
+
+    @Column(name = "id_cliente", nullable = false)
+    private Integer idCliente;
+
+    @Column(name = "excluido_em", nullable = false)
+    private Instant excluidoEm;
+
+    //chave atribuída à mão: sem isso o save() do Spring Data faria merge (um SELECT antes do INSERT)
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean novo = true;
+
+    public ClienteExcluido(Long sequencia, Integer idCliente, Instant excluidoEm) {
+        this.sequencia = sequencia;
+        this.idCliente = idCliente;
+        this.excluidoEm = excluidoEm;
+    }
+
+    @Override
+    public Long getId() {
+        return sequencia;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarGravado() {
+        novo = false;
+    }
+}
@@ -1,9 +1,25 @@
 package io.github.pfalencar.clientes.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
+//índice na FK: as listagens e os totais por cliente filtram por id_cliente
+@Table(indexes = @Index(name = "ix_servico_cliente", columnList = "id_cliente"))
+//no cache de segundo nível fica o serviço com o id do cliente; o cliente vem da região do Cliente
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Getter
+@Setter
+@NoArgsConstructor
 public class Servico {
 
     @Id
@@ -13,10 +29,17 @@ public class Servico {
     @Column(nullable = false, length = 255)
     private String descricao;
 
-    @ManyToOne
+    //LAZY: o padrão do @ManyToOne é EAGER, que dispara um SELECT do cliente para cada serviço listado (N+1).
+    //As consultas do ServicoRepository trazem o cliente junto (join fetch / entity graph) quando precisam dele.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente") //define uma FK. A tabela de Servico vai ter uma FK para a tabela de Cliente.
     private Cliente cliente;
 
     @Column
     private BigDecimal valor;
+
+    //data em que o serviço foi prestado, usada nos totais por mês
+    @Column
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate data;
 }
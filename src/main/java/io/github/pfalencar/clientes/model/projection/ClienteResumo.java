@@ -0,0 +1,15 @@
+package io.github.pfalencar.clientes.model.projection;
+
+/**
+ * Projeção leve do Cliente usada na tela de listagem.
+ * O Spring Data monta o SELECT só com estas colunas (id, nome, cpf), sem hidratar a entidade inteira
+ * dentro do contexto de persistência.
+ */
+public interface ClienteResumo {
+
+    Integer getId();
+
+    String getNome();
+
+    String getCpf();
+}
@@ -0,0 +1,30 @@
+package io.github.pfalencar.clientes.model.repository;
+
+import io.github.pfalencar.clientes.model.entity.ClienteExcluido;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ClienteExcluidoRepository extends JpaRepository<ClienteExcluido, Long> {
+
+    List<ClienteExcluido> findBySequenciaGreaterThanOrderBySequenciaAsc(Long sequencia, Pageable pageable);
+
+    @Query("select min(e.sequencia) from ClienteExcluido e")
+    Long primeiraSequencia();
+
+    //a lápide mais nova nunca entra: ela marca até onde já houve poda, mesmo depois de reiniciar
+    @Query("select max(e.sequencia) from ClienteExcluido e where e.excluidoEm < :limite "
+            + "and e.sequencia < (select max(u.sequencia) from ClienteExcluido u)")
+    Long ultimaSequenciaExcluidaAntes(@Param("limite") Instant limite);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ClienteExcluido e where e.sequencia <= :sequencia")
+    int apagarAte(@Param("sequencia") Long sequencia);
+}
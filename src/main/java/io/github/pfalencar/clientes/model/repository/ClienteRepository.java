@@ -1,8 +1,52 @@
 package io.github.pfalencar.clientes.model.repository;
 
 import io.github.pfalencar.clientes.model.entity.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
+import javax.persistence.QueryHint;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+//readOnly na interface: as consultas derivadas e @Query não têm transação própria e, sem ela, o DataSourceRoteado
+//nunca as mandaria para a réplica. Os herdados do JpaRepository seguem as anotações do SimpleJpaRepository
+//(save, delete: escrita), e os de GravacaoCondicionalCliente têm o próprio @Transactional.
+@Transactional(readOnly = true)
+public interface ClienteRepository extends JpaRepository<Cliente, Integer>, GravacaoCondicionalCliente {
+
+    //Consultas com resultado no cache de consultas do Hibernate. Qualquer gravação na tabela cliente invalida
+    //todos os resultados guardados, então compensa nas páginas e buscas que se repetem entre duas gravações.
+    String CACHEAVEL = "org.hibernate.cacheable";
+
+    //Paginação por cursor (keyset): em vez de OFFSET, busca os registros com id maior que o último id já entregue.
+    //Assim o banco usa a PK para posicionar a leitura e o custo de cada página não cresce com o número da página.
+    //O Pageable aqui serve só para limitar a quantidade de linhas (não gera count).
+    //O parâmetro tipo permite devolver a entidade (Cliente.class) ou uma projeção (ClienteResumo.class).
+    //Sem cache de consultas: a carga do IndiceNomeClientes percorre a tabela inteira em páginas grandes, e uma
+    //projeção guardada no cache leva todas as colunas, não só os ids.
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable, Class<T> tipo);
+
+    //A mesma consulta para a listagem completa do GET /api/clientes, com o resultado no cache de consultas: lá ficam
+    //só os ids da página, e cada cliente vem da região Cliente do cache de segundo nível.
+    @QueryHints(@QueryHint(name = CACHEAVEL, value = "true"))
+    List<Cliente> findPaginaByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    //Consultas por CPF: todas usam o índice único ux_cliente_cpf (o cpf chega aqui já normalizado, só dígitos)
+    @QueryHints(@QueryHint(name = CACHEAVEL, value = "true"))
+    Optional<Cliente> findByCpf(String cpf);
+
+    boolean existsByCpf(String cpf);
+
+    //feed de alterações: clientes incluídos/alterados depois do token, na ordem em que mudaram
+    List<Cliente> findBySequenciaGreaterThanOrderBySequenciaAsc(Long sequencia, Pageable pageable);
+
+    //usado na importação em lote: quais CPFs de um bloco já estão cadastrados, em uma consulta só
+    @Query("select c.cpf from Cliente c where c.cpf in :cpfs")
+    List<String> findCpfsCadastrados(@Param("cpfs") Collection<String> cpfs);
 }
@@ -0,0 +1,17 @@
+package io.github.pfalencar.clientes.model.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+//Alteração e exclusão em um único comando, sem o SELECT antes (implementação em GravacaoCondicionalClienteImpl).
+//O retorno é a quantidade de linhas afetadas: 0 quer dizer que o id não existe ou (quando veio a versão) que a
+//versão do banco já não é a que o front tinha (outra pessoa alterou antes). versao null = sem condição de versão.
+public interface GravacaoCondicionalCliente {
+
+    @Transactional
+    int atualizar(Integer id, Integer versao, String nome, String cpf, Long sequencia, Instant momento);
+
+    @Transactional
+    int excluir(Integer id, Integer versao);
+}
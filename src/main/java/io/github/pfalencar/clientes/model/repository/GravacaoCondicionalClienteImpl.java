@@ -0,0 +1,75 @@
+package io.github.pfalencar.clientes.model.repository;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.Instant;
+
+/**
+ * UPDATE/DELETE condicionais em SQL nativo, para não esvaziar o cache de segundo nível a cada gravação.
+ *
+ * Um UPDATE/DELETE em JPQL (ou SQL nativo sem mais informação) faz o Hibernate limpar a região Cliente inteira,
+ * porque ele não sabe quais linhas o comando afetou. Aqui o comando é sincronizado com um espaço vazio, então
+ * nenhuma região é limpa, e quem grava tira do cache só o próprio cliente: antes do comando e de novo depois do
+ * commit (ClienteService), para uma leitura no meio não deixar a versão antiga lá.
+ *
+ * Os resultados do cache de consultas (listagem, busca por CPF) dependem da tabela cliente e são invalidados como
+ * numa gravação pela entidade: marca a tabela agora e de novo no fim da transação.
+ */
+class GravacaoCondicionalClienteImpl implements GravacaoCondicionalCliente {
+
+    private static final String[] TABELA = {"cliente"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int atualizar(Integer id, Integer versao, String nome, String cpf, Long sequencia, Instant momento) {
+        Query comando = comando("update cliente set nome = :nome, cpf = :cpf, versao = versao + 1, "
+                + "sequencia = :sequencia, ultima_alteracao = :momento where id = :id", id, versao)
+                .setParameter("nome", nome)
+                .setParameter("cpf", cpf)
+                .setParameter("sequencia", sequencia)
+                .setParameter("momento", momento);
+        return executar(comando, id);
+    }
+
+    @Override
+    public int excluir(Integer id, Integer versao) {
+        return executar(comando("delete from cliente where id = :id", id, versao), id);
+    }
+
+    private Query comando(String sql, Integer id, Integer versao) {
+        Query comando = entityManager.createNativeQuery(versao == null ? sql : sql + " and versao = :versao")
+                .setParameter("id", id);
+        if (versao != null) {
+            comando.setParameter("versao", versao);
+        }
+        comando.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        return comando;
+    }
+
+    private int executar(Query comando, Integer id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Cliente.class, id);
+        int linhas = comando.executeUpdate();
+        if (linhas > 0) {
+            invalidarConsultas();
+        }
+        return linhas;
+    }
+
+    private void invalidarConsultas() {
+        SessionImplementor sessao = entityManager.unwrap(SessionImplementor.class);
+        TimestampsCache consultas = sessao.getFactory().getCache().getTimestampsCache();
+        if (consultas == null) {
+            return; //cache de segundo nível desligado
+        }
+        consultas.preInvalidate(TABELA, sessao);
+        sessao.getActionQueue().registerProcess((sucesso, s) -> consultas.invalidate(TABELA, s));
+    }
+}
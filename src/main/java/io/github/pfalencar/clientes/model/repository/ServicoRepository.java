@@ -1,7 +1,58 @@
 package io.github.pfalencar.clientes.model.repository;
 
 import io.github.pfalencar.clientes.model.entity.Servico;
+import io.github.pfalencar.clientes.rest.dto.TotalServicosPorCliente;
+import io.github.pfalencar.clientes.rest.dto.TotalServicosPorMes;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+//readOnly: as consultas abaixo podem ir para a réplica (ver ClienteRepository)
+@Transactional(readOnly = true)
 public interface ServicoRepository extends JpaRepository<Servico, Integer> {
+
+    //listagem paginada trazendo o cliente no mesmo SELECT (entity graph): 1 consulta da página + 1 do count,
+    //não importa quantos serviços vierem na página
+    @Override
+    @EntityGraph(attributePaths = "cliente")
+    Page<Servico> findAll(Pageable pageable);
+
+    //serviços de um cliente, com o cliente no mesmo SELECT (join fetch). O count não precisa do join fetch.
+    @Query(value = "select s from Servico s join fetch s.cliente c where c.id = :idCliente",
+            countQuery = "select count(s) from Servico s where s.cliente.id = :idCliente")
+    Page<Servico> findByCliente(@Param("idCliente") Integer idCliente, Pageable pageable);
+
+    //Totais calculados no banco (group by), sem carregar os serviços para o Java.
+    //Paginados por cursor no id do cliente (keyset, como a listagem de clientes): o Pageable só limita as linhas.
+    @Query("select new io.github.pfalencar.clientes.rest.dto.TotalServicosPorCliente(c.id, c.nome, count(s), sum(s.valor)) " +
+            "from Servico s join s.cliente c " +
+            "where c.id > :cursor " +
+            "group by c.id, c.nome " +
+            "order by c.id")
+    List<TotalServicosPorCliente> totalPorCliente(@Param("cursor") Integer cursor, Pageable pageable);
+
+    //clientes com serviço depois do cursor: define a faixa de clientes de uma página dos totais mensais
+    @Query("select distinct c.id from Servico s join s.cliente c where c.id > :cursor order by c.id")
+    List<Integer> idsClientesComServico(@Param("cursor") Integer cursor, Pageable pageable);
+
+    //todos os meses dos clientes da faixa (cursor, ate]; a página nunca corta os meses de um cliente ao meio
+    @Query("select new io.github.pfalencar.clientes.rest.dto.TotalServicosPorMes(c.id, year(s.data), month(s.data), count(s), sum(s.valor)) " +
+            "from Servico s join s.cliente c " +
+            "where c.id > :cursor and c.id <= :ate " +
+            "group by c.id, year(s.data), month(s.data) " +
+            "order by c.id, year(s.data), month(s.data)")
+    List<TotalServicosPorMes> totalPorMes(@Param("cursor") Integer cursor, @Param("ate") Integer ate);
+
+    @Query("select new io.github.pfalencar.clientes.rest.dto.TotalServicosPorMes(c.id, year(s.data), month(s.data), count(s), sum(s.valor)) " +
+            "from Servico s join s.cliente c " +
+            "where c.id = :idCliente " +
+            "group by c.id, year(s.data), month(s.data) " +
+            "order by year(s.data), month(s.data)")
+    List<TotalServicosPorMes> totalPorMesDoCliente(@Param("idCliente") Integer idCliente);
 }
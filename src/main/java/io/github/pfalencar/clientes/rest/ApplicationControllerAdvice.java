@@ -1,9 +1,15 @@
 package io.github.pfalencar.clientes.rest;
 
 import io.github.pfalencar.clientes.rest.exception.ApiErrors;
+import io.github.pfalencar.clientes.rest.exception.LimiteRequisicoesException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -27,6 +33,13 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class ApplicationControllerAdvice {
 
+    //usado para contar as falhas de validação por campo (métrica clientes.validacao.falhas)
+    private final MeterRegistry registry;
+
+    public ApplicationControllerAdvice(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
     /**
      * para tratar um erro específico precisa-se de um ExceptionHandler
      * retorno um Object que vai ser um objeto específico padronizado para mostrar os erros
@@ -70,6 +83,11 @@ public class ApplicationControllerAdvice {
     @ResponseStatus(HttpStatus.BAD_REQUEST) //erro 400
     public ApiErrors handleValidationErrors(MethodArgumentNotValidException ex) {
         BindingResult bindingResult = ex.getBindingResult();
+        bindingResult.getAllErrors().forEach(objectError -> Counter.builder("clientes.validacao.falhas")
+                .description("Erros de validação devolvidos com 400")
+                .tag("campo", objectError instanceof FieldError ? ((FieldError) objectError).getField() : objectError.getObjectName())
+                .register(registry)
+                .increment());
         List<String> messages = bindingResult.getAllErrors()
                 .stream()
                 .map(objectError -> objectError.getDefaultMessage())
@@ -100,4 +118,30 @@ public class ApplicationControllerAdvice {
         ResponseEntity responseEntity = new ResponseEntity(apiErrors, codigoStatus);
         return responseEntity;
     }
+
+    /**
+     * Violação de constraint do banco (ex.: dois cadastros simultâneos com o mesmo CPF passando pela verificação do
+     * controller ao mesmo tempo). Sem este handler o cliente receberia um erro 500 com a mensagem do Hibernate.
+     * Devolvemos 409-CONFLICT no formato do ApiErrors.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT) //erro 409
+    public ApiErrors handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        String causa = String.valueOf(ex.getMostSpecificCause().getMessage()).toUpperCase();
+        if (causa.contains("UX_CLIENTE_CPF")) {
+            return new ApiErrors("CPF já cadastrado");
+        }
+        return new ApiErrors("Registro conflita com dados já existentes");
+    }
+
+    /**
+     * Client passou do limite de requisições (config.admissao.LimitadorRequisicoes).
+     * 429-TOO_MANY_REQUESTS no formato do ApiErrors, com o header Retry-After dizendo em quantos segundos tentar de novo.
+     */
+    @ExceptionHandler(LimiteRequisicoesException.class)
+    public ResponseEntity<ApiErrors> handleLimiteRequisicoes(LimiteRequisicoesException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .body(new ApiErrors(ex.getMessage()));
+    }
 }
@@ -1,14 +1,41 @@
 package io.github.pfalencar.clientes.rest;
 
+import io.github.pfalencar.clientes.config.admissao.CustoRequisicao;
 import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.projection.ClienteResumo;
 import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.rest.dto.PaginaAlteracoes;
+import io.github.pfalencar.clientes.rest.dto.ResultadoBusca;
+import io.github.pfalencar.clientes.rest.dto.ResultadoLote;
+import io.github.pfalencar.clientes.service.ClienteCache;
+import io.github.pfalencar.clientes.service.ClienteJsonCache;
+import io.github.pfalencar.clientes.service.ClienteLoteService;
+import io.github.pfalencar.clientes.service.ClienteService;
+import io.github.pfalencar.clientes.service.FeedAlteracoesClientes;
+import io.github.pfalencar.clientes.service.ExecutorOperacoes;
+import io.github.pfalencar.clientes.service.ExportacaoClientes;
+import io.github.pfalencar.clientes.service.IndiceNomeClientes;
+import io.github.pfalencar.clientes.service.Operacao;
+import io.github.pfalencar.clientes.util.Cpf;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 //@RestController  - para esta classe ser reconhecida no contexto da aplicação como um controlador REST.
 // Que vai ser a classe que vai  criar nossa API de Clientes, que vai receber as requisições e enviar respostas HTTP REST
@@ -22,8 +49,13 @@ import java.util.List;
 //Abordagem RESTful para manter as boas práticas de programção:
 //Utilizar os verbos corretos: POST - PostMapping; GET - RequestMapping, etc.
 
+//@Timed faz o Actuator publicar o tempo de cada endpoint deste controller (métrica http.server.requests,
+//separada por uri e método) com os percentis p50 e p99.
+//@CustoRequisicao: quantos tokens cada endpoint gasta do limite de requisições do client (padrão 1, ver
+//config.admissao.LimitadorRequisicoes). Listagens, exportação e lote custam mais que as buscas por id/cpf.
 @RestController
 @RequestMapping("/api/clientes")
+@Timed(percentiles = {0.5, 0.99})
 public class ClienteController {
 
     //como a entidade cliente é simples, então vou trabalhar direto com o ClienteRepository em vez de passar por um ServiceRepository antes.
@@ -33,14 +65,48 @@ public class ClienteController {
 
     //Faz-se desta forma ao utilizar a variável no construtor
     private final ClienteRepository clienteRepository;
+    private final ClienteService clienteService;
+    private final ClienteLoteService clienteLoteService;
+    private final ClienteCache clienteCache;
+    //JSON pronto de cada cliente (id + versão), escrito direto na resposta
+    private final ClienteJsonCache clienteJson;
+    private final IndiceNomeClientes indiceNomes;
+    private final ExportacaoClientes exportacaoClientes;
+    private final FeedAlteracoesClientes feedAlteracoes;
+    //roda as operações na thread da requisição ou, com clientes.async.habilitado=true, em pools limitados
+    private final ExecutorOperacoes executor;
+
+    //limites da listagem paginada, configuráveis no application.properties
+    private final int tamanhoPaginaPadrao;
+    private final int tamanhoPaginaMaximo;
 
     //coloquei a injeção de dependência @Autowired no construtor, porque dependo obrigatoriamente do ClienteRepository
     //para que a minha classe ClienteController funcione.
     //Visto que se eu não tiver o repositório, como farei as operações de salvar o cliente, deletar, atualizar, etc.
     //Portanto, na construção da classe eu tenho que passar já a ClienteRepository.
     @Autowired
-    public ClienteController(ClienteRepository clienteRepository) {
+    public ClienteController(ClienteRepository clienteRepository,
+                             ClienteService clienteService,
+                             ClienteLoteService clienteLoteService,
+                             ClienteCache clienteCache,
+                             ClienteJsonCache clienteJson,
+                             IndiceNomeClientes indiceNomes,
+                             ExportacaoClientes exportacaoClientes,
+                             FeedAlteracoesClientes feedAlteracoes,
+                             ExecutorOperacoes executor,
+                             @Value("${clientes.listagem.tamanho-pagina-padrao:50}") int tamanhoPaginaPadrao,
+                             @Value("${clientes.listagem.tamanho-pagina-maximo:500}") int tamanhoPaginaMaximo) {
         this.clienteRepository = clienteRepository;
+        this.clienteService = clienteService;
+        this.clienteLoteService = clienteLoteService;
+        this.clienteCache = clienteCache;
+        this.clienteJson = clienteJson;
+        this.indiceNomes = indiceNomes;
+        this.exportacaoClientes = exportacaoClientes;
+        this.feedAlteracoes = feedAlteracoes;
+        this.executor = executor;
+        this.tamanhoPaginaPadrao = tamanhoPaginaPadrao;
+        this.tamanhoPaginaMaximo = tamanhoPaginaMaximo;
     }
 
     //poderia também criar um setClienteRepository, porém a variável criada não pode ser final, porque final não aceita ser modificada.
@@ -70,21 +136,176 @@ public class ClienteController {
     //portanto, sempre que você quiser retornar o código de status 200-OK, não tem necessidade de colocar esta annotation.
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Cliente salvar(@RequestBody @Valid Cliente cliente) {
+    @CustoRequisicao(2)
+    public Operacao<Cliente> salvar(@RequestBody @Valid Cliente cliente) {
+        return executor.escrita(() -> clienteService.incluir(cliente));
+    }
+
+    //Importação em lote: recebe um array JSON de clientes e grava os válidos em batch.
+    //Não tem @Valid aqui porque um item inválido não pode derrubar o lote inteiro: cada item é validado no
+    //ClienteLoteService e os erros voltam por item, no mesmo formato do ApiErrors (com o índice do item).
+    @PostMapping(value = "lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @CustoRequisicao(20)
+    public ResultadoLote salvarLote(@RequestBody List<Cliente> clientes) {
+        return clienteLoteService.importar(clientes);
+    }
 
-        return clienteRepository.save(cliente);
+    //Mesma importação, mas em NDJSON (um cliente por linha). O corpo é lido como stream, sem carregar tudo na memória.
+    @PostMapping(value = "lote", consumes = "application/x-ndjson")
+    @CustoRequisicao(20)
+    public ResultadoLote salvarLoteNdjson(InputStream corpo) throws IOException {
+        return clienteLoteService.importarNdjson(corpo);
     }
 
+    //Listagem paginada por cursor (keyset no id).
+    //cursor  = último id recebido na página anterior (vazio na primeira página)
+    //tamanho = quantidade de registros da página, limitado por clientes.listagem.tamanho-pagina-maximo
+    //resumo  = true devolve só id, nome e cpf (projeção), sem carregar a entidade completa
+    //O corpo continua sendo um array JSON, para não quebrar o front. O cursor da próxima página vai no header
+    //X-Next-Cursor (e no header Link com rel="next"). Quando não vem o header, é porque chegou na última página.
+    //A lista completa é montada com o JSON pronto de cada cliente (ClienteJsonCache); o resumo passa pelo Jackson.
     @GetMapping
-    public List<Cliente> findAll() {
-        return clienteRepository.findAll();
+    @CustoRequisicao(5)
+    public Operacao<ResponseEntity<?>> findAll(@RequestParam(required = false) Integer cursor,
+                                                              @RequestParam(required = false) Integer tamanho,
+                                                              @RequestParam(defaultValue = "false") boolean resumo) {
+        return executor.leitura(() -> listar(cursor, tamanho, resumo));
+    }
+
+    private ResponseEntity<?> listar(Integer cursor, Integer tamanho, boolean resumo) {
+        int limite = tamanho == null ? tamanhoPaginaPadrao : Math.max(1, Math.min(tamanho, tamanhoPaginaMaximo));
+        int aPartirDe = cursor == null ? 0 : cursor;
+
+        //peço um registro a mais só para saber se existe próxima página, sem precisar fazer um count
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+        List<?> registros = resumo
+                ? clienteRepository.findByIdGreaterThanOrderByIdAsc(aPartirDe, pagina, ClienteResumo.class)
+                : clienteRepository.findPaginaByIdGreaterThanOrderByIdAsc(aPartirDe, pagina);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (registros.size() > limite) {
+            registros = registros.subList(0, limite);
+            Object ultimo = registros.get(limite - 1);
+            Integer proximoCursor = ultimo instanceof Cliente
+                    ? ((Cliente) ultimo).getId()
+                    : ((ClienteResumo) ultimo).getId();
+            headers.set("X-Next-Cursor", String.valueOf(proximoCursor));
+            headers.set(HttpHeaders.LINK, "</api/clientes?cursor=" + proximoCursor + "&tamanho=" + limite
+                    + "&resumo=" + resumo + ">; rel=\"next\"");
+        }
+        if (resumo) {
+            return new ResponseEntity<>(registros, headers, HttpStatus.OK);
+        }
+        @SuppressWarnings("unchecked")
+        List<Cliente> clientes = (List<Cliente>) registros;
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(clienteJson.lista(clientes), headers, HttpStatus.OK);
+    }
+
+    //Feed incremental: só o que mudou depois do token (since) da resposta anterior. Comece com since=0.
+    //Com aguardar=N (segundos, até 30), se não houver nada novo a resposta fica em espera (long-poll) até a próxima
+    //gravação ou até o tempo acabar (aí volta vazia com o mesmo token).
+    @GetMapping("changes")
+    @CustoRequisicao(2)
+    public DeferredResult<PaginaAlteracoes> alteracoes(@RequestParam(defaultValue = "0") long since,
+                                                      @RequestParam(defaultValue = "500") int limite,
+                                                      @RequestParam(defaultValue = "0") int aguardar) {
+        int tamanho = Math.max(1, Math.min(limite, tamanhoPaginaMaximo));
+        long espera = Math.max(0, Math.min(aguardar, 30)) * 1000L;
+        PaginaAlteracoes agora = feedAlteracoes.buscar(since, tamanho);
+        if (!agora.vazia() || espera == 0) {
+            DeferredResult<PaginaAlteracoes> resultado = new DeferredResult<>();
+            resultado.setResult(agora);
+            return resultado;
+        }
+
+        DeferredResult<PaginaAlteracoes> resultado = new DeferredResult<>(espera, () -> agora);
+        Runnable tentarDeNovo = new Runnable() {
+            @Override
+            public void run() {
+                PaginaAlteracoes pagina = feedAlteracoes.buscar(since, tamanho);
+                if (pagina.vazia()) {
+                    feedAlteracoes.aguardar(this); //a gravação ainda não era visível; espera a próxima
+                } else {
+                    resultado.setResult(pagina);
+                }
+            }
+        };
+        resultado.onCompletion(() -> feedAlteracoes.desistir(tentarDeNovo));
+        feedAlteracoes.aguardar(tentarDeNovo);
+        //se algo foi gravado entre a primeira consulta e o registro da espera, não espera a próxima gravação
+        PaginaAlteracoes depoisDeRegistrar = feedAlteracoes.buscar(since, tamanho);
+        if (!depoisDeRegistrar.vazia()) {
+            resultado.setResult(depoisDeRegistrar);
+        }
+        return resultado;
+    }
+
+    //Exportação completa para o BI: ?formato=ndjson (padrão) ou csv.
+    //As linhas são escritas na resposta conforme saem do banco (ver ExportacaoClientes), sem montar lista em memória.
+    //Comprime com gzip quando o client manda Accept-Encoding: gzip ou ?gzip=true.
+    @GetMapping("export")
+    @CustoRequisicao(50)
+    public void exportar(@RequestParam(defaultValue = "ndjson") String formato,
+                         @RequestParam(defaultValue = "false") boolean gzip,
+                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                         HttpServletResponse response) throws IOException {
+        ExportacaoClientes.Formato tipo;
+        try {
+            tipo = ExportacaoClientes.Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato inválido. Use ndjson ou csv");
+        }
+        response.setContentType(tipo == ExportacaoClientes.Formato.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=clientes." + tipo.name().toLowerCase() + (gzip ? ".gz" : ""));
+
+        boolean comprimir = gzip || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+        OutputStream saida = response.getOutputStream();
+        if (comprimir) {
+            if (!gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            saida = new GZIPOutputStream(saida, 64 * 1024);
+        }
+        exportacaoClientes.exportar(tipo, saida);
+        if (comprimir) {
+            ((GZIPOutputStream) saida).finish();
+        }
     }
 
+    //A versão do cliente vai no header ETag. Se o front mandar If-None-Match com a mesma ETag, o próprio Spring
+    //(ResponseEntity com ETag em um GET) responde 304-NOT_MODIFIED sem corpo.
+    //O corpo é o JSON já pronto do ClienteJsonCache (mesmo conteúdo que o Jackson geraria).
     @GetMapping("{id}")
-    public Cliente acharPorId(@PathVariable Integer id) {
-        return clienteRepository
-                .findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+    public Operacao<ResponseEntity<byte[]>> acharPorId(@PathVariable Integer id) {
+        return executor.leitura(() -> {
+            //passa pelo cache: só vai ao banco quando o id não está em memória (inclusive os 404, por pouco tempo)
+            Cliente cliente = clienteCache
+                    .buscar(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+            return ResponseEntity.ok()
+                    .eTag(etag(cliente.getVersao()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(clienteJson.json(cliente));
+        });
+    }
+
+    //Busca por parte do nome, sem diferenciar acento e maiúscula/minúscula ("jose sil" acha "José da Silva").
+    //Usa o índice em memória IndiceNomeClientes, não vai ao banco. Resultado ordenado pela relevância.
+    @GetMapping("search")
+    @CustoRequisicao(2)
+    public List<ResultadoBusca> buscarPorNome(@RequestParam("q") String consulta,
+                                              @RequestParam(defaultValue = "20") int limite) {
+        return indiceNomes.buscar(consulta, Math.max(1, Math.min(limite, 100)));
+    }
+
+    //Busca pelo CPF usando o índice único. Aceita o CPF com ou sem pontuação na URL.
+    @GetMapping("cpf/{cpf}")
+    public Operacao<Cliente> acharPorCpf(@PathVariable String cpf) {
+        return executor.leitura(() -> clienteRepository
+                .findByCpf(Cpf.normalizar(cpf))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado")));
     }
 
 //Primeira abordagem do método delete():
@@ -93,48 +314,66 @@ public class ClienteController {
 //        clienteRepository.deleteById(id);
 //    }
 
-    //Segunda abordagem do método delete():
-    //Nesta abordagem verifico primeiro se o cliente existe na base de dados e posso ter uma ação contra isso (lanço status NOT_FOUND).
-    //E se eu encontrar, deleto ele não retorno nada, só o status 204-NO_CONTENT
+    //Segunda abordagem do método delete() (e do atualizar()):
+    //findById primeiro e, se encontrasse, delete/save dentro do map(); senão NOT_FOUND.
+    //Eram duas idas ao banco e, se duas pessoas alterassem o mesmo cliente ao mesmo tempo, a última gravação
+    //apagava a outra sem ninguém saber.
 
     //204-NO_CONTENT é um código de sucesso, indica que não há nenhum objeto/recurso de retorno
     //204-NO_CONTENT já é suficiente para o client (quem está consumindo esta API) saiba que o recurso foi deletado no servidor.
 
-    //se encontrar o cliente, entra no método map(), senão lanço NOT_FOUND
-    //findById retorna un Optional. Como veio um objeto, entra no map e pego o cliente.
-    //map() recebe o objeto cliente que veio do findById e retorna qlqr objeto, o mesmo objeto ou outro
-    //map() serve para fazer o mapeamento de um objeto para alguma coisa
-    //dentro do map preciso deletar o cliente.
-
-    //no map() preciso retornar algo, se eu retornar null entra na exceção NOT_FOUND,
-    //também não vou retornar o cliente, porque não vou fazer nada com ele.
-    //Então, retorno Void.TYPE para não ficar sem retorno ou retornar nulo.
-
+    //Terceira abordagem: um único DELETE/UPDATE condicional, sem SELECT antes.
+    //Se vier o header If-Match com a ETag do GET, o comando só afeta a linha se a versão ainda for aquela.
+    //Pela quantidade de linhas afetadas sabemos o resultado: 1 = ok (204); 0 = não existe (404) ou, quando veio
+    //If-Match, foi alterado por outra pessoa (412-PRECONDITION_FAILED). Ver ClienteService.
     @DeleteMapping("{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deletar (@PathVariable Integer id) {
-        clienteRepository
-                .findById(id)
-                .map(cliente -> {
-                    clienteRepository.delete(cliente);
-                    return Void.TYPE;
-                })
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+    @CustoRequisicao(2)
+    public Operacao<ResponseEntity<Void>> deletar (@PathVariable Integer id,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer versao = versaoDoIfMatch(ifMatch);
+        return executor.escrita(() -> {
+            clienteService.excluir(id, versao);
+            return ResponseEntity.noContent().build();
+        });
     }
 
+    //O CPF repetido não é mais verificado antes: o índice único ux_cliente_cpf barra e o ApplicationControllerAdvice
+    //devolve 409. Quando veio If-Match, a nova ETag (versão + 1) volta na resposta.
     @PutMapping("{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void atualizar (@PathVariable Integer id, @RequestBody @Valid Cliente clienteAtualizado) {
-        clienteRepository
-                .findById(id)  //pega do id que foi passado na URL
-                .map(cliente -> { //este é o cliente que foi encontrado pelo findById(id)
-                    //clienteAtualizado.setId(cliente.getId());
-                    //return clienteRepository.save(clienteAtualizado);
-                    //ou
-                    cliente.setNome(clienteAtualizado.getNome());
-                    cliente.setCpf(clienteAtualizado.getCpf());
-                    return clienteRepository.save(cliente);
-                })
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado"));
+    @CustoRequisicao(2)
+    public Operacao<ResponseEntity<Void>> atualizar (@PathVariable Integer id,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @RequestBody @Valid Cliente clienteAtualizado) {
+        Integer versao = versaoDoIfMatch(ifMatch);
+        return executor.escrita(() -> {
+            clienteService.atualizar(id, versao, clienteAtualizado.getNome(), clienteAtualizado.getCpf());
+            ResponseEntity.HeadersBuilder<?> resposta = ResponseEntity.noContent();
+            if (versao != null) {
+                resposta.eTag(etag(versao + 1));
+            }
+            return resposta.build();
+        });
+    }
+
+    private static String etag(Integer versao) {
+        return "\"" + versao + "\"";
+    }
+
+    //If-Match: "3" (ou W/"3") -> 3. Sem header ou "*" -> null (alteração sem condição de versão).
+    //Qualquer outro valor não corresponde a nenhuma versão, então devolve 412.
+    private static Integer versaoDoIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match inválido");
+        }
     }
 }
@@ -0,0 +1,61 @@
+package io.github.pfalencar.clientes.rest;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.pfalencar.clientes.service.ClienteCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Números internos da aplicação, para acompanhar e dimensionar os caches.
+@RestController
+@RequestMapping("/api/estatisticas")
+public class EstatisticasController {
+
+    private final ClienteCache clienteCache;
+    private final Statistics estatisticasHibernate;
+
+    public EstatisticasController(ClienteCache clienteCache, EntityManagerFactory entityManagerFactory) {
+        this.clienteCache = clienteCache;
+        this.estatisticasHibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @GetMapping("cache-clientes")
+    public Map<String, Object> cacheClientes() {
+        CacheStats stats = clienteCache.estatisticas();
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("tamanho", clienteCache.tamanho());
+        resposta.put("acertos", stats.hitCount());
+        resposta.put("falhas", stats.missCount());
+        resposta.put("taxaAcerto", stats.hitRate());
+        resposta.put("despejos", stats.evictionCount());
+        return resposta;
+    }
+
+    //cache de segundo nível do Hibernate, por região (entidades e consultas). Também em hibernate.second.level.cache.*
+    @GetMapping("cache-hibernate")
+    public Map<String, Object> cacheHibernate() {
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        for (String regiao : estatisticasHibernate.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = estatisticasHibernate.getCacheRegionStatistics(regiao);
+            if (stats == null) {
+                continue;
+            }
+            Map<String, Object> numeros = new LinkedHashMap<>();
+            numeros.put("tamanho", stats.getElementCountInMemory());
+            numeros.put("acertos", stats.getHitCount());
+            numeros.put("falhas", stats.getMissCount());
+            numeros.put("inclusoes", stats.getPutCount());
+            resposta.put(regiao, numeros);
+        }
+        resposta.put("consultasNoCache", estatisticasHibernate.getQueryCacheHitCount());
+        resposta.put("consultasNoBanco", estatisticasHibernate.getQueryCacheMissCount());
+        return resposta;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.config.admissao.CustoRequisicao;
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.Servico;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import io.github.pfalencar.clientes.rest.dto.ServicoDTO;
+import io.github.pfalencar.clientes.rest.dto.TotalServicosPorCliente;
+import io.github.pfalencar.clientes.rest.dto.TotalServicosPorMes;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Valid;
+import java.util.Collections;
+import java.util.List;
+
+//API dos serviços prestados aos clientes.
+//Todas as listagens são paginadas e trazem o cliente no mesmo SELECT dos serviços (ver ServicoRepository),
+//então o número de consultas por página é constante.
+@RestController
+@RequestMapping("/api/servicos")
+@Timed(percentiles = {0.5, 0.99})
+public class ServicoController {
+
+    private final ServicoRepository servicoRepository;
+    private final ClienteRepository clienteRepository;
+    //mesmos limites da listagem de clientes (clientes por página nos totais)
+    private final int tamanhoPaginaPadrao;
+    private final int tamanhoPaginaMaximo;
+
+    public ServicoController(ServicoRepository servicoRepository, ClienteRepository clienteRepository,
+                             @Value("${clientes.listagem.tamanho-pagina-padrao:50}") int tamanhoPaginaPadrao,
+                             @Value("${clientes.listagem.tamanho-pagina-maximo:500}") int tamanhoPaginaMaximo) {
+        this.servicoRepository = servicoRepository;
+        this.clienteRepository = clienteRepository;
+        this.tamanhoPaginaPadrao = tamanhoPaginaPadrao;
+        this.tamanhoPaginaMaximo = tamanhoPaginaMaximo;
+    }
+
+    @PostMapping
+    @CustoRequisicao(2)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Servico salvar(@RequestBody @Valid ServicoDTO dto) {
+        //no primário: o cliente pode ter acabado de ser criado e ainda não estar na réplica
+        Cliente cliente = ContextoRoteamento.noPrimario(() -> clienteRepository.findById(dto.getIdCliente()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cliente inexistente"));
+
+        Servico servico = new Servico();
+        servico.setDescricao(dto.getDescricao());
+        servico.setValor(dto.getValor());
+        servico.setData(dto.getData());
+        servico.setCliente(cliente);
+        Servico salvo = servicoRepository.save(servico);
+        ContextoRoteamento.registrarEscrita();
+        return salvo;
+    }
+
+    //?page=0&size=20&sort=data,desc  (tamanho máximo da página em spring.data.web.pageable.max-page-size)
+    @GetMapping
+    @CustoRequisicao(3)
+    public Page<Servico> listar(@PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return servicoRepository.findAll(pageable);
+    }
+
+    @GetMapping("cliente/{idCliente}")
+    @CustoRequisicao(3)
+    public Page<Servico> listarPorCliente(@PathVariable Integer idCliente,
+                                          @PageableDefault(size = 20, sort = "data", direction = Sort.Direction.DESC)
+                                                  Pageable pageable) {
+        return servicoRepository.findByCliente(idCliente, pageable);
+    }
+
+    //Quantidade e total (soma do valor) dos serviços de cada cliente, paginado por cursor no id do cliente como o
+    //GET /api/clientes: ?cursor=<último idCliente>&tamanho=<clientes por página>. O cursor da próxima página vai
+    //nos headers X-Next-Cursor e Link; sem eles, chegou na última página.
+    @GetMapping("totais")
+    @CustoRequisicao(5)
+    public ResponseEntity<List<TotalServicosPorCliente>> totalPorCliente(@RequestParam(required = false) Integer cursor,
+                                                                         @RequestParam(required = false) Integer tamanho) {
+        int limite = limite(tamanho);
+        List<TotalServicosPorCliente> totais =
+                servicoRepository.totalPorCliente(cursor == null ? 0 : cursor, PageRequest.of(0, limite + 1));
+        HttpHeaders headers = new HttpHeaders();
+        if (totais.size() > limite) {
+            totais = totais.subList(0, limite);
+            proximaPagina(headers, "totais", totais.get(limite - 1).getIdCliente(), limite);
+        }
+        return new ResponseEntity<>(totais, headers, HttpStatus.OK);
+    }
+
+    //Quantidade e total por cliente e por mês. Com ?idCliente= fica só o cliente informado; sem ele, paginado como
+    //os totais acima (cada página traz todos os meses de até "tamanho" clientes).
+    @GetMapping("totais/mensal")
+    @CustoRequisicao(5)
+    public ResponseEntity<List<TotalServicosPorMes>> totalPorMes(@RequestParam(required = false) Integer idCliente,
+                                                                 @RequestParam(required = false) Integer cursor,
+                                                                 @RequestParam(required = false) Integer tamanho) {
+        if (idCliente != null) {
+            return ResponseEntity.ok(servicoRepository.totalPorMesDoCliente(idCliente));
+        }
+        int limite = limite(tamanho);
+        int aPartirDe = cursor == null ? 0 : cursor;
+        List<Integer> ids = servicoRepository.idsClientesComServico(aPartirDe, PageRequest.of(0, limite + 1));
+        HttpHeaders headers = new HttpHeaders();
+        if (ids.isEmpty()) {
+            return new ResponseEntity<>(Collections.emptyList(), headers, HttpStatus.OK);
+        }
+        if (ids.size() > limite) {
+            ids = ids.subList(0, limite);
+            proximaPagina(headers, "totais/mensal", ids.get(limite - 1), limite);
+        }
+        return new ResponseEntity<>(servicoRepository.totalPorMes(aPartirDe, ids.get(ids.size() - 1)),
+                headers, HttpStatus.OK);
+    }
+
+    private int limite(Integer tamanho) {
+        return tamanho == null ? tamanhoPaginaPadrao : Math.max(1, Math.min(tamanho, tamanhoPaginaMaximo));
+    }
+
+    private static void proximaPagina(HttpHeaders headers, String caminho, Integer proximoCursor, int limite) {
+        headers.set("X-Next-Cursor", String.valueOf(proximoCursor));
+        headers.set(HttpHeaders.LINK, "</api/servicos/" + caminho + "?cursor=" + proximoCursor + "&tamanho=" + limite
+                + ">; rel=\"next\"");
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//Resposta do GET /api/clientes/changes.
+//alterados = clientes incluídos ou alterados (estado atual); excluidos = ids removidos.
+//token = valor para mandar no próximo since; temMais = ainda há alterações depois deste token (chamar de novo já).
+@Getter
+@AllArgsConstructor
+public class PaginaAlteracoes {
+
+    private List<Cliente> alterados;
+    private List<Integer> excluidos;
+    private String token;
+    private boolean temMais;
+
+    public boolean vazia() {
+        return alterados.isEmpty() && excluidos.isEmpty();
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import io.github.pfalencar.clientes.model.projection.ClienteResumo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//item devolvido pela busca por nome: o resumo do cliente e a pontuação usada na ordenação
+@Getter
+@AllArgsConstructor
+public class ResultadoBusca implements ClienteResumo {
+
+    private Integer id;
+    private String nome;
+    private String cpf;
+    private int pontuacao;
+}
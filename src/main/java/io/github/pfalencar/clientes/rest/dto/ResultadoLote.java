@@ -0,0 +1,17 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import io.github.pfalencar.clientes.rest.exception.ErroItemLote;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//resposta da importação em lote: quantos itens chegaram, quantos foram gravados e os erros de cada item rejeitado
+@Getter
+@AllArgsConstructor
+public class ResultadoLote {
+
+    private int recebidos;
+    private int inseridos;
+    private List<ErroItemLote> erros;
+}
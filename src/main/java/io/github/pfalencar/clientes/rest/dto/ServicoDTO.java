@@ -0,0 +1,31 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Dados recebidos no POST /api/servicos. O cliente vem só pelo id, não o objeto inteiro.
+@Data
+@NoArgsConstructor
+public class ServicoDTO {
+
+    @NotEmpty(message = "{campo.descricao.obrigatorio}")
+    private String descricao;
+
+    @NotNull(message = "{campo.valor.obrigatorio}")
+    @PositiveOrZero(message = "{campo.valor.invalido}")
+    private BigDecimal valor;
+
+    @NotNull(message = "{campo.data.obrigatorio}")
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate data;
+
+    @NotNull(message = "{campo.cliente.obrigatorio}")
+    private Integer idCliente;
+}
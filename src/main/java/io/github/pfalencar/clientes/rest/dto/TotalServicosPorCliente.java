@@ -0,0 +1,17 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//quantidade e soma do valor dos serviços de um cliente (montado direto pela consulta do ServicoRepository)
+@Getter
+@AllArgsConstructor
+public class TotalServicosPorCliente {
+
+    private Integer idCliente;
+    private String nomeCliente;
+    private Long quantidade;
+    private BigDecimal total;
+}
@@ -0,0 +1,18 @@
+package io.github.pfalencar.clientes.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+//quantidade e soma do valor dos serviços de um cliente em um mês (montado direto pela consulta do ServicoRepository)
+@Getter
+@AllArgsConstructor
+public class TotalServicosPorMes {
+
+    private Integer idCliente;
+    private Integer ano;
+    private Integer mes;
+    private Long quantidade;
+    private BigDecimal total;
+}
@@ -0,0 +1,22 @@
+package io.github.pfalencar.clientes.rest.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+//mesmo formato do ApiErrors, mas indicando a posição (começando em 0) do item do lote que foi rejeitado
+public class ErroItemLote extends ApiErrors {
+
+    @Getter
+    private int indice;
+
+    public ErroItemLote(int indice, List<String> errors) {
+        super(errors);
+        this.indice = indice;
+    }
+
+    public ErroItemLote(int indice, String message) {
+        super(message);
+        this.indice = indice;
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.pfalencar.clientes.rest.exception;
+
+import lombok.Getter;
+
+//Client passou do limite de requisições (LimitadorRequisicoes). Vira 429 com Retry-After no ApplicationControllerAdvice.
+@Getter
+public class LimiteRequisicoesException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public LimiteRequisicoesException(long retryAfterSegundos) {
+        super("Limite de requisições excedido. Tente novamente em " + retryAfterSegundos + " segundo(s).");
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+}
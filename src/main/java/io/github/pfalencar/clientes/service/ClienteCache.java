@@ -0,0 +1,104 @@
+package io.github.pfalencar.clientes.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache em memória (read-through) na frente do ClienteRepository.findById.
+ *
+ * - limitado por quantidade de entradas (clientes.cache.tamanho-maximo), os menos usados saem primeiro;
+ * - cada entrada expira depois de clientes.cache.ttl;
+ * - quando o cliente não existe guardamos um Optional vazio por clientes.cache.ttl-negativo (bem mais curto),
+ *   para que ids inexistentes repetidos (404) também não batam no banco.
+ *
+ * Quem grava (salvar, atualizar, deletar) precisa chamar atualizar()/invalidar() depois do commit.
+ * As falhas do cache leem sempre do primário: o que entra aqui fica pelo ttl inteiro para todos os clients, e uma
+ * linha lida da réplica atrasada (por mais tempo que for o atraso) deixaria o valor antigo guardado esse tempo todo.
+ * Como cada id só vai ao banco uma vez por ttl, a carga no primário é pequena.
+ * Acertos, falhas e despejos também são publicados nas métricas cache.* (cache=clientes).
+ */
+@Component
+public class ClienteCache implements MeterBinder {
+
+    private final ClienteRepository clienteRepository;
+    private final Cache<Integer, Optional<Cliente>> cache;
+
+    public ClienteCache(ClienteRepository clienteRepository,
+                        @Value("${clientes.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                        @Value("${clientes.cache.ttl:5m}") Duration ttl,
+                        @Value("${clientes.cache.ttl-negativo:10s}") Duration ttlNegativo) {
+        this.clienteRepository = clienteRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoPorTipo(ttl.toNanos(), ttlNegativo.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Cliente> buscar(Integer id) {
+        return cache.get(id, chave -> ContextoRoteamento.noPrimario(() -> clienteRepository.findById(chave)));
+    }
+
+    public void atualizar(Cliente cliente) {
+        cache.put(cliente.getId(), Optional.of(cliente));
+    }
+
+    public void invalidar(Integer id) {
+        cache.invalidate(id);
+    }
+
+    public long tamanho() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    //o Spring Boot chama este método para todo MeterBinder registrado no contexto
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(cache, "clientes", Tags.empty()).bindTo(registry);
+    }
+
+    //TTL diferente para cliente encontrado e para "não encontrado"
+    private static class ExpiracaoPorTipo implements Expiry<Integer, Optional<Cliente>> {
+
+        private final long ttlNanos;
+        private final long ttlNegativoNanos;
+
+        ExpiracaoPorTipo(long ttlNanos, long ttlNegativoNanos) {
+            this.ttlNanos = ttlNanos;
+            this.ttlNegativoNanos = ttlNegativoNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Integer id, Optional<Cliente> valor, long agora) {
+            return valor.isPresent() ? ttlNanos : ttlNegativoNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer id, Optional<Cliente> valor, long agora, long duracaoAtual) {
+            return expireAfterCreate(id, valor, agora);
+        }
+
+        @Override
+        public long expireAfterRead(Integer id, Optional<Cliente> valor, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+}
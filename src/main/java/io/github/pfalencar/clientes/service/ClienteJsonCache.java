@@ -0,0 +1,95 @@
+package io.github.pfalencar.clientes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * JSON já pronto (bytes UTF-8) de cada cliente, para o GET /api/clientes/{id} e a listagem não passarem pelo Jackson
+ * a cada requisição.
+ *
+ * A chave é id + versão: toda alteração soma 1 na versão (e o id vem de sequence, nunca se repete), então o que
+ * está guardado nunca fica desatualizado e ninguém precisa invalidar nada. Versões antigas só deixam de ser
+ * usadas e saem pelo limite de tamanho (clientes.json-cache.tamanho-maximo, em bytes de JSON).
+ *
+ * O JSON é gerado pelo mesmo ObjectMapper do Spring, então sai igual ao da serialização normal (@JsonFormat,
+ * campos só leitura etc.). Métricas em cache.* (cache=clientes.json).
+ */
+@Component
+public class ClienteJsonCache implements MeterBinder {
+
+    private static final byte ABRE = '[';
+    private static final byte SEPARADOR = ',';
+    private static final byte FECHA = ']';
+
+    private final ObjectWriter writer;
+    private final Cache<Long, byte[]> cache;
+
+    public ClienteJsonCache(ObjectMapper objectMapper,
+                            @Value("${clientes.json-cache.tamanho-maximo:32MB}") DataSize tamanhoMaximo) {
+        this.writer = objectMapper.writerFor(Cliente.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximo.toBytes())
+                .<Long, byte[]>weigher((chave, json) -> json.length)
+                .recordStats()
+                .build();
+    }
+
+    public byte[] json(Cliente cliente) {
+        if (cliente.getId() == null || cliente.getVersao() == null) {
+            return serializar(cliente);
+        }
+        return cache.get(chave(cliente.getId(), cliente.getVersao()), chave -> serializar(cliente));
+    }
+
+    //array JSON montado com os fragmentos de cada cliente
+    public byte[] lista(List<Cliente> clientes) {
+        byte[][] fragmentos = new byte[clientes.size()][];
+        int tamanho = 2 + Math.max(0, clientes.size() - 1);
+        for (int i = 0; i < fragmentos.length; i++) {
+            fragmentos[i] = json(clientes.get(i));
+            tamanho += fragmentos[i].length;
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(tamanho);
+        saida.write(ABRE);
+        for (int i = 0; i < fragmentos.length; i++) {
+            if (i > 0) {
+                saida.write(SEPARADOR);
+            }
+            saida.write(fragmentos[i], 0, fragmentos[i].length);
+        }
+        saida.write(FECHA);
+        return saida.toByteArray();
+    }
+
+    private byte[] serializar(Cliente cliente) {
+        try {
+            return writer.writeValueAsBytes(cliente);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long chave(Integer id, Integer versao) {
+        return ((long) id << 32) | (versao & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(cache, "clientes.json", Tags.empty()).bindTo(registry);
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.pfalencar.clientes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.rest.dto.ResultadoLote;
+import io.github.pfalencar.clientes.rest.exception.ErroItemLote;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de clientes em lote (arquivos dos parceiros).
+ *
+ * Cada registro é validado com as mesmas regras do POST /api/clientes (@NotEmpty, @CPF, etc.) usando o validador
+ * configurado no InternacionalizacaoConfig, então as mensagens de erro são as mesmas do messages.properties.
+ * Os registros válidos são gravados em blocos de clientes.lote.tamanho-bloco registros, cada bloco na sua própria
+ * transação. Junto com o hibernate.jdbc.batch_size e o id por SEQUENCE, cada bloco vira um único batch JDBC.
+ *
+ * Nada do arquivo vira 500 no meio da importação (os blocos anteriores já estariam commitados): item nulo ou
+ * inválido é erro do item; bloco recusado pelo índice único é regravado item a item para achar o culpado; outra
+ * falha do banco marca os itens daquele bloco como não gravados. Tudo volta em ResultadoLote.erros, pelo índice.
+ */
+@Slf4j
+@Service
+public class ClienteLoteService {
+
+    private static final String CPF_DUPLICADO = "CPF já cadastrado";
+    private static final String ITEM_NULO = "Item vazio (null): esperado um cliente";
+    private static final String FALHA_BANCO = "Não gravado: falha no banco de dados. Envie o item novamente";
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteCache clienteCache;
+    private final IndiceNomeClientes indiceNomes;
+    private final ClienteService clienteService;
+    private final FeedAlteracoesClientes feedAlteracoes;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader leitorCliente;
+    private final int tamanhoBloco;
+
+    public ClienteLoteService(ClienteRepository clienteRepository,
+                              ClienteCache clienteCache,
+                              IndiceNomeClientes indiceNomes,
+                              ClienteService clienteService,
+                              FeedAlteracoesClientes feedAlteracoes,
+                              Validator validator,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${clientes.lote.tamanho-bloco:50}") int tamanhoBloco) {
+        this.clienteRepository = clienteRepository;
+        this.clienteCache = clienteCache;
+        this.indiceNomes = indiceNomes;
+        this.clienteService = clienteService;
+        this.feedAlteracoes = feedAlteracoes;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leitorCliente = objectMapper.readerFor(Cliente.class);
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    //entrada em array JSON: a lista já vem desserializada pelo Spring
+    public ResultadoLote importar(List<Cliente> clientes) {
+        Importacao importacao = new Importacao();
+        for (Cliente cliente : clientes) {
+            importacao.adicionar(cliente);
+        }
+        return importacao.finalizar();
+    }
+
+    //entrada em NDJSON: um cliente JSON por linha. Lemos linha a linha, então o arquivo nunca fica inteiro na memória
+    //e uma linha com JSON inválido vira erro só daquele item.
+    public ResultadoLote importarNdjson(InputStream entrada) throws IOException {
+        Importacao importacao = new Importacao();
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            if (linha.trim().isEmpty()) {
+                continue;
+            }
+            Cliente cliente;
+            try {
+                cliente = leitorCliente.readValue(linha);
+            } catch (JsonProcessingException e) {
+                importacao.rejeitar("JSON inválido: " + e.getOriginalMessage());
+                continue;
+            }
+            importacao.adicionar(cliente);
+        }
+        return importacao.finalizar();
+    }
+
+    //estado de uma importação: posição do item atual, bloco pendente e resultado acumulado
+    private class Importacao {
+
+        private final long inicio = System.nanoTime();
+        private final List<Cliente> bloco = new ArrayList<>(tamanhoBloco);
+        private final List<Integer> indicesBloco = new ArrayList<>(tamanhoBloco);
+        private final List<ErroItemLote> erros = new ArrayList<>();
+        private int indice = 0;
+        private int inseridos = 0;
+
+        void adicionar(Cliente cliente) {
+            if (cliente == null) {
+                rejeitar(ITEM_NULO);
+                return;
+            }
+            Set<ConstraintViolation<Cliente>> violacoes = validator.validate(cliente);
+            if (!violacoes.isEmpty()) {
+                List<String> mensagens = violacoes.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .collect(Collectors.toList());
+                erros.add(new ErroItemLote(indice++, mensagens));
+                return;
+            }
+            //o id é sempre gerado pela sequence, mesmo que o arquivo traga um
+            cliente.setId(null);
+            bloco.add(cliente);
+            indicesBloco.add(indice++);
+            if (bloco.size() >= tamanhoBloco) {
+                gravarBloco();
+            }
+        }
+
+        void rejeitar(String mensagem) {
+            erros.add(new ErroItemLote(indice++, mensagem));
+        }
+
+        ResultadoLote finalizar() {
+            if (!bloco.isEmpty()) {
+                gravarBloco();
+            }
+            erros.sort(Comparator.comparingInt(ErroItemLote::getIndice));
+            long duracaoMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+            log.info("Importação em lote: {} recebidos, {} inseridos, {} com erro em {} ms ({} registros/s)",
+                    indice, inseridos, erros.size(), duracaoMs, inseridos * 1000L / duracaoMs);
+            return new ResultadoLote(indice, inseridos, erros);
+        }
+
+        private void gravarBloco() {
+            removerCpfsDuplicados();
+            if (bloco.isEmpty()) {
+                return;
+            }
+            List<Cliente> gravados;
+            try {
+                transactionTemplate.execute(status -> {
+                    //as sequencias do feed são pegas antes dos saves, senão cada consulta da sequence forçaria um
+                    //flush e os inserts deixariam de ir em batch
+                    bloco.forEach(clienteService::marcarAlteracao);
+                    clienteRepository.saveAll(bloco);
+                    clienteRepository.flush();
+                    return null;
+                });
+                gravados = new ArrayList<>(bloco);
+            } catch (DataIntegrityViolationException e) {
+                //outra requisição gravou um desses CPFs depois da verificação; o bloco voltou inteiro
+                log.warn("Bloco da importação recusado pelo banco, gravando item a item: {}",
+                        e.getMostSpecificCause().getMessage());
+                gravados = gravarItemAItem();
+            } catch (DataAccessException e) {
+                log.error("Bloco da importação não gravado", e);
+                indicesBloco.forEach(indiceItem -> erros.add(new ErroItemLote(indiceItem, FALHA_BANCO)));
+                gravados = new ArrayList<>();
+            }
+            if (!gravados.isEmpty()) {
+                ContextoRoteamento.registrarEscrita();
+                //algum desses ids pode ter sido consultado antes de existir e estar no cache como "não encontrado"
+                gravados.forEach(cliente -> {
+                    clienteCache.invalidar(cliente.getId());
+                    indiceNomes.indexar(cliente);
+                });
+                feedAlteracoes.notificar();
+            }
+            inseridos += gravados.size();
+            bloco.clear();
+            indicesBloco.clear();
+        }
+
+        //um item por transação: mais lento, só no caso raro de o bloco inteiro ter sido recusado
+        private List<Cliente> gravarItemAItem() {
+            List<Cliente> gravados = new ArrayList<>();
+            for (int i = 0; i < bloco.size(); i++) {
+                Cliente cliente = bloco.get(i);
+                try {
+                    transactionTemplate.execute(status -> {
+                        descartarInsertDesfeito(cliente);
+                        clienteService.marcarAlteracao(cliente);
+                        return clienteRepository.saveAndFlush(cliente);
+                    });
+                    gravados.add(cliente);
+                } catch (DataIntegrityViolationException e) {
+                    erros.add(new ErroItemLote(indicesBloco.get(i), CPF_DUPLICADO));
+                } catch (DataAccessException e) {
+                    log.error("Item da importação não gravado", e);
+                    erros.add(new ErroItemLote(indicesBloco.get(i), FALHA_BANCO));
+                }
+            }
+            return gravados;
+        }
+
+        //depois do rollback a entidade ficou com o id e a versão do INSERT desfeito; sem limpar, o save() faria merge
+        private void descartarInsertDesfeito(Cliente cliente) {
+            cliente.setId(null);
+            cliente.setVersao(null);
+        }
+
+        //CPF repetido (já cadastrado ou repetido dentro do próprio arquivo) derrubaria o batch inteiro no índice único,
+        //então tiramos esses itens do bloco antes e devolvemos como erro do item.
+        //Os blocos anteriores já foram commitados, então a consulta também pega repetições entre blocos.
+        private void removerCpfsDuplicados() {
+            //no primário: na réplica os blocos recém-commitados ainda podem não ter chegado
+            List<String> cpfs = bloco.stream().map(Cliente::getCpf).collect(Collectors.toList());
+            Set<String> jaCadastrados = new HashSet<>(
+                    ContextoRoteamento.noPrimario(() -> clienteRepository.findCpfsCadastrados(cpfs)));
+            Set<String> cpfsDoBloco = new HashSet<>();
+            List<Cliente> aceitos = new ArrayList<>(bloco.size());
+            List<Integer> indicesAceitos = new ArrayList<>(bloco.size());
+            for (int i = 0; i < bloco.size(); i++) {
+                String cpf = bloco.get(i).getCpf();
+                if (jaCadastrados.contains(cpf) || !cpfsDoBloco.add(cpf)) {
+                    erros.add(new ErroItemLote(indicesBloco.get(i), CPF_DUPLICADO));
+                } else {
+                    aceitos.add(bloco.get(i));
+                    indicesAceitos.add(indicesBloco.get(i));
+                }
+            }
+            bloco.clear();
+            bloco.addAll(aceitos);
+            indicesBloco.clear();
+            indicesBloco.addAll(indicesAceitos);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.ClienteExcluido;
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+
+/**
+ * Gravações de cliente (incluir, atualizar, excluir).
+ *
+ * O controller trabalhava direto com o ClienteRepository, mas agora cada gravação precisa, na mesma transação,
+ * marcar a sequencia/momento da alteração (ou gravar a exclusão no ClienteExcluido) e, depois do commit, atualizar
+ * o cache, o índice de nomes e acordar quem está esperando no feed de alterações. Tudo isso fica aqui.
+ *
+ * Com réplica de leitura configurada, as verificações que antecedem ou explicam uma gravação leem do primário, e
+ * cada gravação registra a escrita no ContextoRoteamento para a requisição ler o que acabou de gravar.
+ */
+@Service
+public class ClienteService {
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteExcluidoRepository clienteExcluidoRepository;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final ClienteCache clienteCache;
+    private final IndiceNomeClientes indiceNomes;
+    private final FeedAlteracoesClientes feedAlteracoes;
+    private final TransactionTemplate transacao;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ClienteService(ClienteRepository clienteRepository,
+                          ClienteExcluidoRepository clienteExcluidoRepository,
+                          SequenciaAlteracoes sequenciaAlteracoes,
+                          ClienteCache clienteCache,
+                          IndiceNomeClientes indiceNomes,
+                          FeedAlteracoesClientes feedAlteracoes,
+                          PlatformTransactionManager transactionManager,
+                          EntityManagerFactory entityManagerFactory) {
+        this.clienteRepository = clienteRepository;
+        this.clienteExcluidoRepository = clienteExcluidoRepository;
+        this.sequenciaAlteracoes = sequenciaAlteracoes;
+        this.clienteCache = clienteCache;
+        this.indiceNomes = indiceNomes;
+        this.feedAlteracoes = feedAlteracoes;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Cliente incluir(Cliente cliente) {
+        //o cpf já chega sem pontuação (CpfDeserializer), então a consulta usa o índice único.
+        //Se dois POSTs com o mesmo CPF passarem juntos por aqui, o índice barra o segundo e o
+        //ApplicationControllerAdvice também devolve 409.
+        if (ContextoRoteamento.noPrimario(() -> clienteRepository.existsByCpf(cliente.getCpf()))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "CPF já cadastrado");
+        }
+        cliente.setId(null); //POST sempre cria; o id vem da sequence
+        Cliente salvo = transacao.execute(status -> {
+            marcarAlteracao(cliente);
+            return clienteRepository.save(cliente);
+        });
+        ContextoRoteamento.registrarEscrita();
+        clienteCache.atualizar(salvo); //o próximo GET por id já sai do cache
+        indiceNomes.indexar(salvo);
+        feedAlteracoes.notificar();
+        return salvo;
+    }
+
+    //um único UPDATE, condicionado à versão quando ela é informada (If-Match)
+    public void atualizar(Integer id, Integer versao, String nome, String cpf) {
+        int linhas = transacao.execute(status ->
+                clienteRepository.atualizar(id, versao, nome, cpf, sequenciaAlteracoes.proxima(), Instant.now()));
+        if (linhas == 0) {
+            throw naoAlterado(id, versao);
+        }
+        //o comando já tirou o cliente do cache de segundo nível; de novo depois do commit, caso uma leitura
+        //concorrente tenha guardado a versão antiga nesse meio tempo
+        entityManagerFactory.getCache().evict(Cliente.class, id);
+        ContextoRoteamento.registrarEscrita();
+        //o cache não tem a entidade nova completa (dataCadastro, versão), então só invalida
+        clienteCache.invalidar(id);
+        indiceNomes.indexar(id, nome, cpf);
+        feedAlteracoes.notificar();
+    }
+
+    //um único DELETE (condicionado à versão quando informada) e a lápide para o feed de alterações
+    public void excluir(Integer id, Integer versao) {
+        int linhas = transacao.execute(status -> {
+            int excluidas = clienteRepository.excluir(id, versao);
+            if (excluidas > 0) {
+                clienteExcluidoRepository.save(
+                        new ClienteExcluido(sequenciaAlteracoes.proxima(), id, Instant.now()));
+            }
+            return excluidas;
+        });
+        if (linhas == 0) {
+            throw naoAlterado(id, versao);
+        }
+        entityManagerFactory.getCache().evict(Cliente.class, id);
+        ContextoRoteamento.registrarEscrita();
+        clienteCache.invalidar(id);
+        indiceNomes.remover(id);
+        feedAlteracoes.notificar();
+    }
+
+    //marca a inclusão/alteração para o feed. Chamar antes de salvar a entidade (ver SequenciaAlteracoes).
+    public void marcarAlteracao(Cliente cliente) {
+        cliente.setSequencia(sequenciaAlteracoes.proxima());
+        cliente.setUltimaAlteracao(Instant.now());
+    }
+
+    //nenhuma linha afetada: não existe (404) ou, quando veio a versão, outra pessoa alterou antes (412).
+    //Só neste caso de erro vamos ao banco de novo para diferenciar os dois.
+    private ResponseStatusException naoAlterado(Integer id, Integer versao) {
+        if (versao != null && ContextoRoteamento.noPrimario(() -> clienteRepository.existsById(id))) {
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Cliente foi alterado por outra operação. Carregue novamente e repita a alteração.");
+        }
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado");
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.config.ContadorSql;
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Modo de execução assíncrona dos endpoints do ClienteController (opcional, clientes.async.habilitado=true).
+ *
+ * Os endpoints devolvem uma Operacao (leitura() / escrita()) e o OperacaoReturnValueHandler chama isHabilitado().
+ * Desligado (padrão), a operação roda na própria thread do Tomcat, como sempre foi, e a resposta sai como a de um
+ * método síncrono (sem despacho assíncrono do Spring MVC).
+ * Ligado, a operação vai para um pool próprio e a thread do Tomcat fica livre durante a ida ao banco. Leituras e
+ * escritas têm pools e filas separados e limitados (clientes.async.leitura.* / clientes.async.escrita.*): com a
+ * fila cheia a requisição é recusada na hora com 503, em vez de esperar e aumentar a latência de todo mundo.
+ *
+ * Dica de dimensionamento: threads de leitura + threads de escrita perto do tamanho do pool de conexões (Hikari).
+ * Métricas: executor.* (tag name=clientes.leitura / clientes.escrita, inclui executor.queued) e
+ * clientes.async.rejeicoes.
+ */
+@Slf4j
+@Component
+public class ExecutorOperacoes implements MeterBinder, DisposableBean {
+
+    public enum Tipo { LEITURA, ESCRITA }
+
+    private final boolean habilitado;
+    private final ThreadPoolExecutor leitura;
+    private final ThreadPoolExecutor escrita;
+    private Counter rejeicoesLeitura;
+    private Counter rejeicoesEscrita;
+
+    public ExecutorOperacoes(@Value("${clientes.async.habilitado:false}") boolean habilitado,
+                             @Value("${clientes.async.leitura.threads:8}") int threadsLeitura,
+                             @Value("${clientes.async.leitura.fila:100}") int filaLeitura,
+                             @Value("${clientes.async.escrita.threads:4}") int threadsEscrita,
+                             @Value("${clientes.async.escrita.fila:50}") int filaEscrita) {
+        this.habilitado = habilitado;
+        this.leitura = criarPool("leitura", threadsLeitura, filaLeitura);
+        this.escrita = criarPool("escrita", threadsEscrita, filaEscrita);
+        if (habilitado) {
+            log.info("Execução assíncrona ligada: leitura {} threads / fila {}, escrita {} threads / fila {}",
+                    threadsLeitura, filaLeitura, threadsEscrita, filaEscrita);
+        }
+    }
+
+    public <T> Operacao<T> leitura(Supplier<T> operacao) {
+        return new Operacao<>(Tipo.LEITURA, operacao);
+    }
+
+    public <T> Operacao<T> escrita(Supplier<T> operacao) {
+        return new Operacao<>(Tipo.ESCRITA, operacao);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    //só com o modo assíncrono ligado; fila cheia = 503 na hora
+    public <T> CompletableFuture<T> noPool(Operacao<T> operacao) {
+        Tipo tipo = operacao.getTipo();
+        //o contexto da requisição (contador de SQL, roteamento leitura/escrita) vai junto para a thread do pool
+        AtomicInteger contadorSql = ContadorSql.atual();
+        ContextoRoteamento.Estado roteamento = ContextoRoteamento.atual();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                ContadorSql.usar(contadorSql);
+                ContextoRoteamento.usar(roteamento);
+                try {
+                    return operacao.executar();
+                } finally {
+                    ContadorSql.limpar();
+                    ContextoRoteamento.limpar();
+                }
+            }, tipo == Tipo.LEITURA ? leitura : escrita);
+        } catch (RejectedExecutionException e) {
+            (tipo == Tipo.LEITURA ? rejeicoesLeitura : rejeicoesEscrita).increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Servidor ocupado. Tente novamente em instantes.");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(leitura, "clientes.leitura", Tags.empty()).bindTo(registry);
+        new ExecutorServiceMetrics(escrita, "clientes.escrita", Tags.empty()).bindTo(registry);
+        rejeicoesLeitura = rejeicoes(registry, "leitura");
+        rejeicoesEscrita = rejeicoes(registry, "escrita");
+    }
+
+    @Override
+    public void destroy() {
+        leitura.shutdown();
+        escrita.shutdown();
+    }
+
+    private static Counter rejeicoes(MeterRegistry registry, String operacao) {
+        return Counter.builder("clientes.async.rejeicoes")
+                .description("Requisições recusadas com 503 por fila cheia")
+                .tag("operacao", operacao)
+                .register(registry);
+    }
+
+    //pool de tamanho fixo com fila limitada; AbortPolicy = RejectedExecutionException quando a fila enche
+    private static ThreadPoolExecutor criarPool(String nome, int threads, int fila) {
+        AtomicInteger numero = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                tarefa -> new Thread(tarefa, "clientes-" + nome + "-" + numero.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.pfalencar.clientes.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Exportação da base inteira de clientes (job noturno de BI).
+ *
+ * Nada de entidade nem de List: a consulta é lida por um cursor JDBC só para frente (fetch size configurável,
+ * transação somente leitura) e cada linha é escrita direto na resposta assim que chega. A memória usada não depende
+ * do tamanho da tabela.
+ */
+@Service
+public class ExportacaoClientes {
+
+    public enum Formato { NDJSON, CSV }
+
+    private static final String SQL = "select id, nome, cpf, data_cadastro, versao from cliente order by id";
+    //mesmo formato do @JsonFormat do Cliente.dataCadastro
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacaoLeitura;
+    private final JsonFactory jsonFactory;
+
+    public ExportacaoClientes(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${clientes.exportacao.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void exportar(Formato formato, OutputStream saida) throws IOException {
+        if (formato == Formato.CSV) {
+            exportarCsv(saida);
+        } else {
+            exportarNdjson(saida);
+        }
+    }
+
+    private void exportarNdjson(OutputStream saida) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(saida);
+        json.setRootValueSeparator(null);
+        percorrer(linha -> {
+            json.writeStartObject();
+            json.writeNumberField("id", linha.getInt("id"));
+            json.writeStringField("nome", linha.getString("nome"));
+            json.writeStringField("cpf", linha.getString("cpf"));
+            json.writeStringField("dataCadastro", data(linha.getDate("data_cadastro")));
+            Integer versao = versao(linha);
+            if (versao == null) {
+                json.writeNullField("versao");
+            } else {
+                json.writeNumberField("versao", versao);
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        });
+        json.flush();
+    }
+
+    private void exportarCsv(OutputStream saida) throws IOException {
+        Writer csv = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+        csv.write("id,nome,cpf,dataCadastro,versao\n");
+        percorrer(linha -> {
+            csv.write(String.valueOf(linha.getInt("id")));
+            csv.write(',');
+            csv.write(campoCsv(linha.getString("nome")));
+            csv.write(',');
+            csv.write(linha.getString("cpf"));
+            csv.write(',');
+            String dataCadastro = data(linha.getDate("data_cadastro"));
+            csv.write(dataCadastro == null ? "" : dataCadastro);
+            csv.write(',');
+            Integer versao = versao(linha);
+            csv.write(versao == null ? "" : String.valueOf(versao));
+            csv.write('\n');
+        });
+        csv.flush();
+    }
+
+    //roda a consulta em uma transação somente leitura e chama o escritor para cada linha
+    private void percorrer(EscritorLinha escritor) throws IOException {
+        try {
+            transacaoLeitura.execute(status -> {
+                jdbcTemplate.query(
+                        conexao -> conexao.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY),
+                        (RowCallbackHandler) linha -> {
+                            try {
+                                escritor.escrever(linha);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            //normalmente o cliente HTTP fechou a conexão no meio; a consulta é interrompida
+            throw e.getCause();
+        }
+    }
+
+    private static String data(Date data) {
+        return data == null ? null : data.toLocalDate().format(FORMATO_DATA);
+    }
+
+    //linhas gravadas por fora da aplicação podem ter versao nula; getInt devolveria 0
+    private static Integer versao(ResultSet linha) throws SQLException {
+        int versao = linha.getInt("versao");
+        return linha.wasNull() ? null : versao;
+    }
+
+    //nome entre aspas quando tem vírgula, aspas ou quebra de linha (\n ou \r), com as aspas internas duplicadas
+    private static String campoCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface EscritorLinha {
+        void escrever(ResultSet linha) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.ClienteExcluido;
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.rest.dto.PaginaAlteracoes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Feed incremental de alterações de clientes: em vez de baixar a tabela inteira a cada poucos segundos, o front
+ * guarda o token da última resposta e pede só o que mudou depois dele.
+ *
+ * Inclusões e alterações vêm do próprio Cliente (coluna sequencia, indexada); exclusões vêm do ClienteExcluido.
+ * As duas listas são intercaladas pela sequencia e cortadas no limite seguro da SequenciaAlteracoes: uma sequencia
+ * menor ainda não commitada seguraria o token, senão o client passaria dela e nunca a veria. Lê sempre do primário,
+ * porque a réplica atrasada teria o mesmo problema.
+ *
+ * Lápides mais velhas que clientes.feed.retencao-exclusoes são apagadas; um token anterior à poda recebe 410 (Gone)
+ * e o client refaz a carga com since=0.
+ *
+ * Também guarda quem está esperando (long-poll): a cada gravação o notificar() refaz a consulta de cada espera,
+ * em uma thread própria para não atrasar a requisição que gravou.
+ */
+@Slf4j
+@Service
+@Lazy(false) //com spring.main.lazy-initialization=true (profile prod) a poda agendada nunca rodaria
+public class FeedAlteracoesClientes {
+
+    private final ClienteRepository clienteRepository;
+    private final ClienteExcluidoRepository clienteExcluidoRepository;
+    private final SequenciaAlteracoes sequenciaAlteracoes;
+    private final TransactionTemplate transacaoLeitura;
+    private final Duration retencaoExclusoes;
+    //tokens menores que isto podem ter perdido lápides; -1 até a primeira consulta
+    private volatile long podadoAte = -1;
+    private final Queue<Runnable> esperando = new ConcurrentLinkedQueue<>();
+    private final ExecutorService notificacoes = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "feed-alteracoes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FeedAlteracoesClientes(ClienteRepository clienteRepository,
+                                  ClienteExcluidoRepository clienteExcluidoRepository,
+                                  SequenciaAlteracoes sequenciaAlteracoes,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${clientes.feed.retencao-exclusoes:7d}") Duration retencaoExclusoes) {
+        this.clienteRepository = clienteRepository;
+        this.clienteExcluidoRepository = clienteExcluidoRepository;
+        this.sequenciaAlteracoes = sequenciaAlteracoes;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.retencaoExclusoes = retencaoExclusoes;
+    }
+
+    public PaginaAlteracoes buscar(long desde, int limite) {
+        if (desde > 0 && desde < podadoAte()) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "Token anterior às exclusões guardadas. Refaça a carga com since=0");
+        }
+        return ContextoRoteamento.noPrimario(() -> transacaoLeitura.execute(status -> {
+            long limiteSeguro = sequenciaAlteracoes.limiteSeguro();
+            PageRequest pagina = PageRequest.of(0, limite + 1);
+            List<Cliente> clientes = clienteRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(desde, pagina);
+            List<ClienteExcluido> exclusoes =
+                    clienteExcluidoRepository.findBySequenciaGreaterThanOrderBySequenciaAsc(desde, pagina);
+
+            List<Cliente> alterados = new ArrayList<>();
+            List<Integer> excluidos = new ArrayList<>();
+            long ultima = desde;
+            int i = 0;
+            int j = 0;
+            while (true) {
+                boolean haAlteracao = i < clientes.size() && clientes.get(i).getSequencia() <= limiteSeguro;
+                boolean haExclusao = j < exclusoes.size() && exclusoes.get(j).getSequencia() <= limiteSeguro;
+                if (!haAlteracao && !haExclusao) {
+                    break;
+                }
+                if (alterados.size() + excluidos.size() == limite) {
+                    //ainda há item visível depois do limite da página
+                    return new PaginaAlteracoes(alterados, excluidos, String.valueOf(ultima), true);
+                }
+                boolean proximoEhAlteracao = !haExclusao
+                        || (haAlteracao && clientes.get(i).getSequencia() < exclusoes.get(j).getSequencia());
+                if (proximoEhAlteracao) {
+                    Cliente cliente = clientes.get(i++);
+                    alterados.add(cliente);
+                    ultima = cliente.getSequencia();
+                } else {
+                    ClienteExcluido exclusao = exclusoes.get(j++);
+                    excluidos.add(exclusao.getIdCliente());
+                    ultima = exclusao.getSequencia();
+                }
+            }
+            //o que ficou acima do limite seguro aparece numa próxima consulta, depois do commit que falta
+            return new PaginaAlteracoes(alterados, excluidos, String.valueOf(ultima), false);
+        }));
+    }
+
+    //Apaga as lápides mais velhas que a retenção, menos a mais nova (ver ClienteExcluidoRepository).
+    @Scheduled(fixedDelayString = "${clientes.feed.intervalo-poda-ms:3600000}")
+    public void podarExclusoes() {
+        Long ate = clienteExcluidoRepository.ultimaSequenciaExcluidaAntes(Instant.now().minus(retencaoExclusoes));
+        if (ate == null) {
+            return;
+        }
+        //primeiro avisa quem chegar com token antigo, depois apaga
+        synchronized (this) {
+            podadoAte = Math.max(podadoAte(), ate);
+        }
+        int apagadas = clienteExcluidoRepository.apagarAte(ate);
+        log.info("Feed de alterações: {} lápides apagadas (até a sequencia {})", apagadas, ate);
+    }
+
+    //Depois de reiniciar não se sabe se houve poda: na dúvida vale a lápide mais antiga que sobrou. No pior caso
+    //um client com token de antes da primeira exclusão refaz a carga sem precisar.
+    private synchronized long podadoAte() {
+        long valor = podadoAte;
+        if (valor < 0) {
+            Long primeira = clienteExcluidoRepository.primeiraSequencia();
+            valor = primeira == null ? 0 : primeira - 1;
+            podadoAte = valor;
+        }
+        return valor;
+    }
+
+    //registra uma espera de long-poll; ela é chamada na próxima gravação
+    public void aguardar(Runnable espera) {
+        esperando.add(espera);
+    }
+
+    public void desistir(Runnable espera) {
+        esperando.remove(espera);
+    }
+
+    //chamado depois do commit de qualquer inclusão, alteração ou exclusão
+    public void notificar() {
+        Runnable espera;
+        while ((espera = esperando.poll()) != null) {
+            notificacoes.execute(espera);
+        }
+    }
+}
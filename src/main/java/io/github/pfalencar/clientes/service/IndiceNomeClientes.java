@@ -0,0 +1,320 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.projection.ClienteResumo;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.rest.dto.ResultadoBusca;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória para a busca de clientes por parte do nome (tela do call center).
+ *
+ * O nome é normalizado (sem acento, minúsculo) e quebrado em palavras (tokens). Mantemos:
+ * - idsPorToken: token -> ids dos clientes que têm essa palavra. É um mapa ordenado, então a busca por prefixo
+ *   ("mar" acha "maria", "marcos") é uma faixa do mapa;
+ * - tokensPorTrigrama: pedaço de 3 letras -> tokens que contêm esse pedaço. Serve para a busca por trecho no meio
+ *   da palavra ("ues" acha "marques"). O trigrama aponta para palavras distintas, que são bem menos que clientes.
+ *
+ * Pontuação por termo pesquisado: palavra exata = 3, prefixo = 2, trecho = 1. Com mais de um termo, o cliente
+ * precisa casar com todos e as pontuações são somadas. Os termos são ordenados pelo tamanho das suas listas de ids
+ * (postings): só as listas do termo mais raro são percorridas, da palavra exata para o trecho, e os outros termos
+ * são conferidos no nome de cada candidato. A busca para quando já tem "limite" x FATOR_CANDIDATOS clientes que
+ * casam com todos os termos, então um termo genérico ("a") custa o mesmo com mil ou com um milhão de clientes.
+ * Nesse caso o resultado sai dos melhores candidatos encontrados, não necessariamente dos melhores do índice todo.
+ *
+ * O índice é montado na subida da aplicação a partir do ClienteRepository e atualizado pelo ClienteService (e pela
+ * importação em lote) a cada inclusão, alteração e exclusão. As leituras não usam lock; as escritas são
+ * sincronizadas (são bem menos frequentes).
+ */
+@Slf4j
+@Component
+public class IndiceNomeClientes implements ApplicationRunner {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final int TAMANHO_TRIGRAMA = 3;
+    private static final int PAGINA_CARGA = 10_000;
+
+    private static final int PONTOS_EXATO = 3;
+    private static final int PONTOS_PREFIXO = 2;
+    private static final int PONTOS_TRECHO = 1;
+
+    //candidatos que casam com todos os termos, por posição pedida no resultado, antes da busca parar
+    static final int FATOR_CANDIDATOS = 10;
+    //a contagem das listas de um termo (para achar o mais raro) para aqui: acima disso é só "muito comum"
+    private static final int LIMITE_CONTAGEM = 10_000;
+
+    private final ClienteRepository clienteRepository;
+
+    private final Map<Integer, ResultadoBusca> itens = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Integer>> idsPorToken = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> tokensPorTrigrama = new ConcurrentHashMap<>();
+
+    public IndiceNomeClientes(ClienteRepository clienteRepository) {
+        this.clienteRepository = clienteRepository;
+    }
+
+    //carga inicial, em páginas por cursor para não trazer a tabela inteira de uma vez
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.currentTimeMillis();
+        int cursor = 0;
+        List<ClienteResumo> pagina;
+        do {
+            pagina = clienteRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, PAGINA_CARGA),
+                    ClienteResumo.class);
+            for (ClienteResumo cliente : pagina) {
+                indexar(cliente.getId(), cliente.getNome(), cliente.getCpf());
+                cursor = cliente.getId();
+            }
+        } while (pagina.size() == PAGINA_CARGA);
+        log.info("Índice de nomes montado com {} clientes e {} palavras em {} ms",
+                itens.size(), idsPorToken.size(), System.currentTimeMillis() - inicio);
+    }
+
+    public void indexar(Cliente cliente) {
+        indexar(cliente.getId(), cliente.getNome(), cliente.getCpf());
+    }
+
+    public synchronized void indexar(Integer id, String nome, String cpf) {
+        remover(id);
+        itens.put(id, new ResultadoBusca(id, nome, cpf, 0));
+        for (String token : tokens(nome)) {
+            Set<Integer> ids = idsPorToken.get(token);
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                idsPorToken.put(token, ids);
+                for (String trigrama : trigramas(token)) {
+                    tokensPorTrigrama.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(token);
+                }
+            }
+            ids.add(id);
+        }
+    }
+
+    public synchronized void remover(Integer id) {
+        ResultadoBusca anterior = itens.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String token : tokens(anterior.getNome())) {
+            Set<Integer> ids = idsPorToken.get(token);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            //palavra sem nenhum cliente sai do índice, senão os trigramas só crescem
+            if (ids.isEmpty()) {
+                idsPorToken.remove(token);
+                for (String trigrama : trigramas(token)) {
+                    Set<String> tokensDoTrigrama = tokensPorTrigrama.get(trigrama);
+                    if (tokensDoTrigrama != null) {
+                        tokensDoTrigrama.remove(token);
+                        if (tokensDoTrigrama.isEmpty()) {
+                            tokensPorTrigrama.remove(trigrama);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public List<ResultadoBusca> buscar(String consulta, int limite) {
+        return melhores(candidatos(consulta, limite), limite);
+    }
+
+    //id -> pontuação somada dos termos, com no máximo limite x FATOR_CANDIDATOS clientes
+    Map<Integer, Integer> candidatos(String consulta, int limite) {
+        Set<String> termos = tokens(consulta);
+        if (termos.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Ocorrencias> porTermo = new ArrayList<>(termos.size());
+        for (String termo : termos) {
+            Ocorrencias ocorrencias = new Ocorrencias(termo);
+            if (ocorrencias.tamanho == 0) {
+                return Collections.emptyMap();
+            }
+            porTermo.add(ocorrencias);
+        }
+        porTermo.sort(Comparator.comparingLong(ocorrencias -> ocorrencias.tamanho));
+
+        Ocorrencias maisRaro = porTermo.get(0);
+        long maximo = (long) limite * FATOR_CANDIDATOS;
+        Map<Integer, Integer> pontuacao = new HashMap<>();
+        //o mesmo cliente pode estar em mais de uma lista do termo; vale a primeira, que é a de mais pontos
+        Set<Integer> vistos = new HashSet<>();
+        for (int pontosRaro = PONTOS_EXATO; pontosRaro >= PONTOS_TRECHO; pontosRaro--) {
+            for (Set<Integer> ids : maisRaro.listas(pontosRaro)) {
+                for (Integer id : ids) {
+                    if (!vistos.add(id)) {
+                        continue;
+                    }
+                    ResultadoBusca item = itens.get(id);
+                    int total = item == null ? 0 : pontosRaro; //removido enquanto a busca rodava
+                    for (int i = 1; i < porTermo.size() && total > 0; i++) {
+                        int pontos = pontos(porTermo.get(i).termo, item.getNome());
+                        total = pontos == 0 ? 0 : total + pontos;
+                    }
+                    if (total > 0) {
+                        pontuacao.put(id, total);
+                        if (pontuacao.size() >= maximo) {
+                            return pontuacao;
+                        }
+                    }
+                }
+            }
+        }
+        return pontuacao;
+    }
+
+    public int tamanho() {
+        return itens.size();
+    }
+
+    //mesma regra das listas, aplicada às palavras de um nome (a melhor forma de casamento vale; 0 = não casa)
+    private static int pontos(String termo, String nome) {
+        int melhor = 0;
+        for (String token : tokens(nome)) {
+            if (token.equals(termo)) {
+                return PONTOS_EXATO;
+            }
+            if (token.startsWith(termo)) {
+                melhor = PONTOS_PREFIXO;
+            } else if (melhor == 0 && termo.length() >= TAMANHO_TRIGRAMA && token.contains(termo)) {
+                melhor = PONTOS_TRECHO;
+            }
+        }
+        return melhor;
+    }
+
+    //tokens que contêm o termo: pega o trigrama do termo com menos palavras e confere cada uma
+    private List<String> tokensComTrecho(String termo) {
+        Set<String> menor = null;
+        for (String trigrama : trigramas(termo)) {
+            Set<String> tokens = tokensPorTrigrama.get(trigrama);
+            if (tokens == null) {
+                return Collections.emptyList();
+            }
+            if (menor == null || tokens.size() < menor.size()) {
+                menor = tokens;
+            }
+        }
+        List<String> resultado = new ArrayList<>();
+        for (String token : menor) {
+            if (token.contains(termo)) {
+                resultado.add(token);
+            }
+        }
+        return resultado;
+    }
+
+    //os "limite" melhores: maior pontuação, depois nome mais curto (mais próximo do que foi digitado), depois alfabética
+    private List<ResultadoBusca> melhores(Map<Integer, Integer> pontuacao, int limite) {
+        Comparator<ResultadoBusca> ordem = Comparator.comparingInt(ResultadoBusca::getPontuacao).reversed()
+                .thenComparingInt(item -> item.getNome().length())
+                .thenComparing(ResultadoBusca::getNome);
+        //heap com os piores no topo, para descartar rápido
+        PriorityQueue<ResultadoBusca> heap = new PriorityQueue<>(limite + 1, ordem.reversed());
+        for (Map.Entry<Integer, Integer> entrada : pontuacao.entrySet()) {
+            ResultadoBusca item = itens.get(entrada.getKey());
+            if (item == null) {
+                continue; //removido enquanto a busca rodava
+            }
+            heap.add(new ResultadoBusca(item.getId(), item.getNome(), item.getCpf(), entrada.getValue()));
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+        List<ResultadoBusca> resultado = new ArrayList<>(heap);
+        resultado.sort(ordem);
+        return resultado;
+    }
+
+    static String normalizar(String texto) {
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokens(String texto) {
+        if (texto == null) {
+            return Collections.emptySet();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> trigramas(String token) {
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + TAMANHO_TRIGRAMA <= token.length(); i++) {
+            trigramas.add(token.substring(i, i + TAMANHO_TRIGRAMA));
+        }
+        return trigramas;
+    }
+
+    //Listas de ids que casam com um termo: a da palavra exata, as das palavras com o prefixo e as com o trecho.
+    //As de prefixo são uma visão do mapa ordenado, percorrida só quando preciso (a palavra mais curta vem antes).
+    private class Ocorrencias {
+
+        private final String termo;
+        private final Set<Integer> exatos;
+        private final Collection<Set<Integer>> prefixos;
+        private List<Set<Integer>> trechos;
+        //soma dos tamanhos das listas até LIMITE_CONTAGEM: no máximo esse número de clientes casa com o termo
+        private final long tamanho;
+
+        Ocorrencias(String termo) {
+            this.termo = termo;
+            this.exatos = idsPorToken.get(termo);
+            this.prefixos = idsPorToken.subMap(termo, false, termo + Character.MAX_VALUE, true).values();
+            long contagem = exatos == null ? 0 : exatos.size();
+            for (Iterator<Set<Integer>> listas = prefixos.iterator();
+                 listas.hasNext() && contagem <= LIMITE_CONTAGEM; ) {
+                contagem += listas.next().size();
+            }
+            if (contagem <= LIMITE_CONTAGEM) {
+                for (Set<Integer> ids : listas(PONTOS_TRECHO)) {
+                    contagem += ids.size();
+                }
+            }
+            this.tamanho = contagem;
+        }
+
+        Iterable<Set<Integer>> listas(int pontos) {
+            if (pontos == PONTOS_EXATO) {
+                return exatos == null ? Collections.emptyList() : Collections.singletonList(exatos);
+            }
+            if (pontos == PONTOS_PREFIXO) {
+                return prefixos;
+            }
+            if (trechos == null) {
+                trechos = new ArrayList<>();
+                if (termo.length() >= TAMANHO_TRIGRAMA) {
+                    for (String token : tokensComTrecho(termo)) {
+                        Set<Integer> ids = idsPorToken.get(token);
+                        if (ids != null && !token.startsWith(termo)) {
+                            trechos.add(ids);
+                        }
+                    }
+                }
+            }
+            return trechos;
+        }
+    }
+}
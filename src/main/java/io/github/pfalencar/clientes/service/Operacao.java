@@ -0,0 +1,26 @@
+package io.github.pfalencar.clientes.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Operação de um endpoint, ainda não executada. O controller devolve a Operacao (criada pelo ExecutorOperacoes)
+ * e o OperacaoReturnValueHandler decide onde ela roda: na thread da requisição ou no pool de leitura/escrita.
+ */
+public final class Operacao<T> {
+
+    private final ExecutorOperacoes.Tipo tipo;
+    private final Supplier<T> corpo;
+
+    Operacao(ExecutorOperacoes.Tipo tipo, Supplier<T> corpo) {
+        this.tipo = tipo;
+        this.corpo = corpo;
+    }
+
+    public ExecutorOperacoes.Tipo getTipo() {
+        return tipo;
+    }
+
+    public T executar() {
+        return corpo.get();
+    }
+}
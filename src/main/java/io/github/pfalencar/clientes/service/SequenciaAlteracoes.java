@@ -0,0 +1,100 @@
+package io.github.pfalencar.clientes.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Próximo valor da sequence alteracao_cliente_seq (criada pelo import.sql / V1__esquema_inicial.sql), usada em
+ * Cliente.sequencia e ClienteExcluido.sequencia.
+ * O comando vem do dialeto do Hibernate, então funciona em qualquer banco com sequence.
+ *
+ * A sequencia é pega no momento da gravação, mas a linha só aparece para os outros no commit, e os commits não saem
+ * na ordem das sequencias (a importação em lote segura um bloco inteiro numa transação). Por isso cada valor
+ * entregue fica como pendente até a transação terminar, e o feed só entrega alterações até o limiteSeguro(): a maior
+ * sequencia abaixo da qual todas as transações já terminaram. Vale para as gravações desta instância.
+ *
+ * Atenção: o Hibernate faz flush antes de uma consulta nativa. Para não quebrar os inserts em batch, pegue as
+ * sequencias antes de salvar as entidades da transação.
+ */
+@Component
+public class SequenciaAlteracoes {
+
+    private static final String SEQUENCE = "alteracao_cliente_seq";
+    private static final String ULTIMA_GRAVADA = "select coalesce(max(s), 0) from ("
+            + "select max(sequencia) s from cliente union all select max(sequencia) s from cliente_excluido) t";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final String comandoProximoValor;
+    //valores entregues cuja transação ainda não terminou
+    private final ConcurrentSkipListSet<Long> pendentes = new ConcurrentSkipListSet<>();
+    //maior valor já entregue (ou já gravado no banco antes da subida); -1 enquanto não se sabe
+    private volatile long maiorEntregue = -1;
+    //leitura: quem está pegando valores (vários ao mesmo tempo); escrita: o cálculo do limite seguro, que não pode
+    //acontecer entre o nextval e o registro do valor como pendente
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    public SequenciaAlteracoes(EntityManagerFactory entityManagerFactory) {
+        this.comandoProximoValor = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceNextValString(SEQUENCE);
+    }
+
+    //chamar dentro da transação que vai gravar a alteração
+    public long proxima() {
+        long valor;
+        trava.readLock().lock();
+        try {
+            valor = ((Number) entityManager.createNativeQuery(comandoProximoValor).getSingleResult()).longValue();
+            pendentes.add(valor);
+            synchronized (this) {
+                maiorEntregue = Math.max(maiorEntregue, valor);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    pendentes.remove(valor); //commit ou rollback: de um jeito ou de outro já não está pendente
+                }
+            });
+        } else {
+            pendentes.remove(valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Maior sequencia que o feed pode entregar: todas as menores ou iguais já foram commitadas (ou descartadas).
+     * Valores entregues depois desta chamada são sempre maiores que o retorno, então não abrem buraco para trás.
+     */
+    public long limiteSeguro() {
+        trava.writeLock().lock();
+        try {
+            if (maiorEntregue < 0) {
+                //primeira chamada depois da subida: o que já está no banco foi commitado antes
+                Number gravada = (Number) entityManager.createNativeQuery(ULTIMA_GRAVADA).getSingleResult();
+                synchronized (this) {
+                    maiorEntregue = Math.max(maiorEntregue, gravada.longValue());
+                }
+            }
+            Long menorPendente = pendentes.isEmpty() ? null : pendentes.first();
+            return menorPendente == null ? maiorEntregue : Math.min(maiorEntregue, menorPendente - 1);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.pfalencar.clientes.util;
+
+import java.util.regex.Pattern;
+
+//O CPF é gravado sempre só com os dígitos (coluna de 11 posições, com índice único).
+//Normalizamos uma única vez na entrada (JSON e URL) para que toda busca por CPF use o índice.
+public final class Cpf {
+
+    //só removemos a pontuação usual (123.456.789-09); letras continuam lá para o @CPF acusar o erro
+    private static final Pattern PONTUACAO = Pattern.compile("[.\\-/\\s]");
+
+    private Cpf() {
+    }
+
+    public static String normalizar(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        return PONTUACAO.matcher(cpf).replaceAll("");
+    }
+}
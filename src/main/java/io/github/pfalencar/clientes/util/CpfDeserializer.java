@@ -0,0 +1,20 @@
+package io.github.pfalencar.clientes.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+//Usado no campo cpf do Cliente: "123.456.789-09" chega na entidade como "12345678909"
+public class CpfDeserializer extends StdDeserializer<String> {
+
+    public CpfDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        return Cpf.normalizar(parser.getValueAsString());
+    }
+}
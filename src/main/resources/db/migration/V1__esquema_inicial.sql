@@ -0,0 +1,41 @@
+-- Esquema inicial (profile prod). Equivalente ao que o Hibernate gera a partir das entidades; no prod ele só valida
+-- (ddl-auto=validate). Qualquer mudança de entidade precisa de uma nova migração V2__..., V3__... nesta pasta.
+
+-- ids de cliente reservados de 50 em 50 (Cliente.id, allocationSize = 50)
+create sequence cliente_seq start with 1 increment by 50;
+
+-- ordem global das alterações: Cliente.sequencia e ClienteExcluido.sequencia
+create sequence alteracao_cliente_seq start with 1 increment by 1;
+
+create table cliente (
+    id               integer      not null,
+    nome             varchar(150) not null,
+    cpf              varchar(11)  not null,
+    data_cadastro    date,
+    versao           integer,
+    ultima_alteracao timestamp,
+    sequencia        bigint,
+    primary key (id)
+);
+
+create unique index ux_cliente_cpf on cliente (cpf);
+create index ix_cliente_sequencia on cliente (sequencia);
+
+create table servico (
+    id         integer generated by default as identity,
+    descricao  varchar(255) not null,
+    valor      decimal(19, 2),
+    data       date,
+    id_cliente integer,
+    primary key (id),
+    constraint fk_servico_cliente foreign key (id_cliente) references cliente (id)
+);
+
+create index ix_servico_cliente on servico (id_cliente);
+
+create table cliente_excluido (
+    sequencia   bigint    not null,
+    id_cliente  integer   not null,
+    excluido_em timestamp not null,
+    primary key (sequencia)
+);
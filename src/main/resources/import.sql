@@ -0,0 +1 @@
+create sequence if not exists alteracao_cliente_seq start with 1 increment by 1;
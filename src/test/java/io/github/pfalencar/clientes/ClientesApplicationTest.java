@@ -0,0 +1,64 @@
+package io.github.pfalencar.clientes;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.projection.ClienteResumo;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Sobe a aplicação com a configuração padrão: o cache de segundo nível (JCache + ehcache.xml) precisa iniciar junto.
+@SpringBootTest
+class ClientesApplicationTest {
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ScheduledTaskHolder agendamentos;
+
+    @Test
+    void sobeComOCacheDeSegundoNivel() {
+        Cliente cliente = clienteRepository.save(DadosTeste.cliente("Cache", 9_000));
+        entityManagerFactory.getCache().evictAll();
+
+        assertThat(clienteRepository.findById(cliente.getId())).isPresent();
+
+        assertThat(entityManagerFactory.getCache().contains(Cliente.class, cliente.getId())).isTrue();
+    }
+
+    //o agendamento é da aplicação: com o limite de requisições desligado (padrão) a poda do feed continua rodando
+    @Test
+    void podaDoFeedAgendadaComOLimiteDesligado() {
+        assertThat(agendamentos.getScheduledTasks())
+                .extracting(tarefa -> tarefa.getTask().toString())
+                .anyMatch(tarefa -> tarefa.endsWith("FeedAlteracoesClientes.podarExclusoes"))
+                .anyMatch(tarefa -> tarefa.endsWith("LimitadorRequisicoes.descartarBaldesParados"));
+    }
+
+    //a carga do índice de nomes (projeção, páginas grandes) não pode encher o cache de consultas
+    @Test
+    void soAListagemCompletaVaiParaOCacheDeConsultas() {
+        clienteRepository.save(DadosTeste.cliente("Consulta", 9_001));
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        clienteRepository.findByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0, 10_000), ClienteResumo.class);
+        clienteRepository.findByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0, 10_000), Cliente.class);
+        assertThat(estatisticas.getQueryCachePutCount()).isZero();
+
+        clienteRepository.findPaginaByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0, 51));
+        assertThat(estatisticas.getQueryCachePutCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.pfalencar.clientes;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+
+//Clientes válidos para os testes (mesma regra de CPF do Dados dos benchmarks).
+public final class DadosTeste {
+
+    private DadosTeste() {
+    }
+
+    //CPF válido (com dígitos verificadores) a partir de um número, para não repetir no índice único
+    public static String cpf(long numero) {
+        int[] digitos = new int[11];
+        long base = numero % 1_000_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digitos[9] = digitoVerificador(digitos, 9);
+        digitos[10] = digitoVerificador(digitos, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+
+    private static int digitoVerificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = (soma * 10) % 11;
+        return resto == 10 ? 0 : resto;
+    }
+
+    public static Cliente cliente(String nome, long numero) {
+        Cliente cliente = new Cliente();
+        cliente.setNome(nome);
+        cliente.setCpf(cpf(numero));
+        return cliente;
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.pfalencar.clientes;
+
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//Sobe com o profile prod: H2 em arquivo (numa pasta temporária), esquema pelo Flyway e conferido pelo Hibernate
+//(ddl-auto=validate), beans preguiçosos e o relatório de tempos de inicialização.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+class ProfileProducaoTest {
+
+    @DynamicPropertySource
+    static void bancoEmArquivo(DynamicPropertyRegistry registry) throws IOException {
+        Path pasta = Files.createTempDirectory("clientes-prod");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + pasta.resolve("clientes") + ";MV_STORE=TRUE");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConfigurableApplicationContext contexto;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ScheduledTaskHolder agendamentos;
+
+    //o Hibernate só sobe se as entidades baterem com as tabelas criadas pelas migrações
+    @Test
+    void esquemaCriadoPeloFlywayEValidadoPeloHibernate() {
+        assertThat(environment.getProperty("spring.datasource.url")).startsWith("jdbc:h2:file:");
+        assertThat(environment.getProperty("spring.jpa.hibernate.ddl-auto")).isEqualTo("validate");
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from \"flyway_schema_history\" where \"version\" = '1' and \"success\"",
+                Integer.class)).isEqualTo(1);
+
+        Cliente cliente = clienteRepository.save(DadosTeste.cliente("Produção", 17_000));
+        assertThat(clienteRepository.findById(cliente.getId())).isPresent();
+    }
+
+    @Test
+    void beansPreguicososSemDerrubarOsAgendamentos() {
+        assertThat(contexto.getBeanFactory().getBeanDefinition("servicoController").isLazyInit()).isTrue();
+        assertThat(contexto.containsBean("h2Console")).isFalse();
+        assertThat(agendamentos.getScheduledTasks())
+                .extracting(tarefa -> tarefa.getTask().toString())
+                .anyMatch(tarefa -> tarefa.endsWith("FeedAlteracoesClientes.podarExclusoes"))
+                .anyMatch(tarefa -> tarefa.endsWith("LimitadorRequisicoes.descartarBaldesParados"));
+    }
+
+    @Test
+    void relatorioDeInicializacaoComAPrimeiraRequisicao() throws Exception {
+        mockMvc.perform(get("/api/clientes"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/inicializacao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshMs").value(notNullValue()))
+                .andExpect(jsonPath("$.ateProntaMs").value(notNullValue()))
+                .andExpect(jsonPath("$.primeiraRequisicaoMs").value(notNullValue()));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.pfalencar.clientes.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Liga e desliga o log de SQL pelo /actuator/loggers, só com a chave de gerenciamento.
+@SpringBootTest(properties = "clientes.gerenciamento.chave=segredo")
+@AutoConfigureMockMvc
+class ChaveGerenciamentoFilterTest {
+
+    private static final String LOGGER_SQL = "/actuator/loggers/org.hibernate.SQL";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void desligarSql() throws Exception {
+        mockMvc.perform(post(LOGGER_SQL)
+                .header(ChaveGerenciamentoFilter.HEADER_CHAVE, "segredo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"configuredLevel\":\"OFF\"}"));
+    }
+
+    @Test
+    void semChaveOuComChaveErradaDevolve403() throws Exception {
+        mockMvc.perform(post(LOGGER_SQL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"configuredLevel\":\"DEBUG\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(LOGGER_SQL).header(ChaveGerenciamentoFilter.HEADER_CHAVE, "outra"))
+                .andExpect(status().isForbidden());
+
+        assertThat(LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled()).isFalse();
+    }
+
+    @Test
+    void comAChaveLigaEDesligaOSql() throws Exception {
+        mockMvc.perform(post(LOGGER_SQL)
+                .header(ChaveGerenciamentoFilter.HEADER_CHAVE, "segredo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"configuredLevel\":\"DEBUG\"}"))
+                .andExpect(status().isNoContent());
+        assertThat(LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled()).isTrue();
+
+        mockMvc.perform(post(LOGGER_SQL)
+                .header(ChaveGerenciamentoFilter.HEADER_CHAVE, "segredo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"configuredLevel\":\"OFF\"}"))
+                .andExpect(status().isNoContent());
+        assertThat(LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled()).isFalse();
+    }
+}
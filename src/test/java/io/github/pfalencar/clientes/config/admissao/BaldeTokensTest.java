@@ -0,0 +1,78 @@
+package io.github.pfalencar.clientes.config.admissao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Balde de tokens (GCRA), arredondamento do Retry-After e escolha do balde de cada requisição.
+class BaldeTokensTest {
+
+    //10 nanos por token, capacidade de 5 tokens
+    private static final long POR_TOKEN = 10;
+    private static final long CAPACIDADE = 50;
+
+    @Test
+    void aceitaAteACapacidadeEDizQuantoEsperar() {
+        BaldeTokens balde = new BaldeTokens(0);
+
+        assertThat(balde.consumir(3, POR_TOKEN, CAPACIDADE, 0)).isZero();
+        assertThat(balde.consumir(2, POR_TOKEN, CAPACIDADE, 0)).isZero();
+        assertThat(balde.consumir(1, POR_TOKEN, CAPACIDADE, 0)).isEqualTo(10);
+        //pedido recusado não consome nada: depois de um token de tempo ele passa
+        assertThat(balde.consumir(1, POR_TOKEN, CAPACIDADE, 10)).isZero();
+    }
+
+    @Test
+    void reabasteceComOTempoSemPassarDaCapacidade() {
+        BaldeTokens balde = new BaldeTokens(0);
+        assertThat(balde.consumir(5, POR_TOKEN, CAPACIDADE, 0)).isZero();
+
+        assertThat(balde.cheio(49)).isFalse();
+        assertThat(balde.cheio(50)).isTrue();
+        //parado muito tempo continua com só 5 tokens
+        assertThat(balde.consumir(6, POR_TOKEN, CAPACIDADE, 1000)).isEqualTo(10);
+        assertThat(balde.consumir(5, POR_TOKEN, CAPACIDADE, 1000)).isZero();
+    }
+
+    @Test
+    void retryAfterEmSegundosArredondadoParaCima() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LimitadorRequisicoes limitador = new LimitadorRequisicoes(true, 1, 2, registry);
+
+        assertThat(limitador.admitir("ip:1", 2, "teste")).isZero();
+        assertThat(limitador.admitir("ip:1", 1, "teste")).isEqualTo(1);
+        assertThat(limitador.admitir("ip:1", 2, "teste")).isEqualTo(2);
+        //cada client tem o seu balde
+        assertThat(limitador.admitir("ip:2", 2, "teste")).isZero();
+        assertThat(registry.get("clientes.limite.rejeicoes").tag("endpoint", "teste").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void desabilitadoAceitaTudo() {
+        LimitadorRequisicoes limitador = new LimitadorRequisicoes(false, 1, 1, new SimpleMeterRegistry());
+
+        assertThat(limitador.admitir("ip:1", 100, "teste")).isZero();
+        assertThat(limitador.admitir("ip:1", 100, "teste")).isZero();
+    }
+
+    @Test
+    void soChaveCadastradaGanhaBalde() {
+        AdmissaoInterceptor interceptor = new AdmissaoInterceptor(null, Collections.singleton("parceiro"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+
+        assertThat(interceptor.client(request)).isEqualTo("ip:10.0.0.1");
+        request.addHeader(AdmissaoInterceptor.HEADER_CHAVE, " parceiro ");
+        assertThat(interceptor.client(request)).isEqualTo("chave:parceiro");
+
+        MockHttpServletRequest inventada = new MockHttpServletRequest();
+        inventada.setRemoteAddr("10.0.0.1");
+        inventada.addHeader(AdmissaoInterceptor.HEADER_CHAVE, "qualquer-uma");
+        assertThat(interceptor.client(inventada)).isEqualTo("ip:10.0.0.1");
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.pfalencar.clientes.config.datasource;
+
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+//Escolha do pool por conexão: somente leitura vai para a réplica (e a sessão para de gravar no cache de segundo
+//nível); escrita, leitura forçada no primário e réplica atrasada ficam no primário.
+class DataSourceRoteadoTest {
+
+    private final MonitorReplica monitorReplica = mock(MonitorReplica.class);
+    private final DataSourceRoteado roteado = new DataSourceRoteado(monitorReplica);
+
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final Session sessao = mock(Session.class);
+
+    @BeforeEach
+    void transacaoComSessao() {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(sessao);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        when(monitorReplica.replicaEmDia()).thenReturn(true);
+    }
+
+    @AfterEach
+    void limpar() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ContextoRoteamento.limpar();
+    }
+
+    @Test
+    void leituraVaiParaAReplicaSemGravarNoCache() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.REPLICA);
+        verify(sessao).setCacheMode(CacheMode.GET);
+    }
+
+    @Test
+    void escritaFicaNoPrimario() {
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.PRIMARIO);
+        verifyNoInteractions(sessao);
+    }
+
+    @Test
+    void leituraNoPrimarioQuandoPedido() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object destino = ContextoRoteamento.noPrimario(roteado::determineCurrentLookupKey);
+
+        assertThat(destino).isEqualTo(DataSourceRoteado.Destino.PRIMARIO);
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.REPLICA);
+    }
+
+    @Test
+    void leituraNoPrimarioDepoisDeGravarNaRequisicao() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ContextoRoteamento.usar(new ContextoRoteamento.Estado(null, 5000, false));
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.REPLICA);
+
+        ContextoRoteamento.registrarEscrita();
+
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.PRIMARIO);
+    }
+
+    @Test
+    void leituraNoPrimarioComReplicaAtrasada() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(monitorReplica.replicaEmDia()).thenReturn(false);
+
+        assertThat(roteado.determineCurrentLookupKey()).isEqualTo(DataSourceRoteado.Destino.PRIMARIO);
+        verifyNoInteractions(sessao);
+    }
+
+    //findAll/findById/consultas derivadas só vão para a réplica se o repositório abrir a transação como leitura
+    @Test
+    void repositoriosDeLeituraAbremTransacaoSomenteLeitura() {
+        assertThat(ClienteRepository.class.getAnnotation(Transactional.class).readOnly()).isTrue();
+        assertThat(ServicoRepository.class.getAnnotation(Transactional.class).readOnly()).isTrue();
+        //as lápides são gravadas e podadas pelo próprio repositório
+        assertThat(ClienteExcluidoRepository.class.getAnnotation(Transactional.class)).isNull();
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.service.ClienteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//PUT/DELETE condicionados à versão (If-Match com a ETag do GET): 204, 412, 404 e 409.
+@SpringBootTest
+@AutoConfigureMockMvc
+class AlteracaoCondicionalClienteTest {
+
+    //CPFs diferentes a cada teste, sem limpar a tabela
+    private static final AtomicLong NUMERO = new AtomicLong(1000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    private Cliente cliente;
+
+    @BeforeEach
+    void incluir() {
+        cliente = clienteService.incluir(DadosTeste.cliente("Maria Silva", NUMERO.incrementAndGet()));
+    }
+
+    private static String json(String nome, String cpf) {
+        return "{\"nome\":\"" + nome + "\",\"cpf\":\"" + cpf + "\"}";
+    }
+
+    @Test
+    void getDevolveAVersaoComoETag() throws Exception {
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    void putComAVersaoAtualAlteraEDevolveANovaETag() throws Exception {
+        mockMvc.perform(put("/api/clientes/{id}", cliente.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Souza", cliente.getCpf())))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.nome").value("Maria Souza"));
+    }
+
+    @Test
+    void putComVersaoAntigaDevolve412() throws Exception {
+        clienteService.atualizar(cliente.getId(), null, "Outra Pessoa Alterou", cliente.getCpf());
+
+        mockMvc.perform(put("/api/clientes/{id}", cliente.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Souza", cliente.getCpf())))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(jsonPath("$.nome").value("Outra Pessoa Alterou"));
+    }
+
+    @Test
+    void ifMatchInvalidoDevolve412() throws Exception {
+        mockMvc.perform(put("/api/clientes/{id}", cliente.getId())
+                .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Souza", cliente.getCpf())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void putSemIfMatchAlteraSemConferirVersao() throws Exception {
+        clienteService.atualizar(cliente.getId(), null, "Maria Alterada", cliente.getCpf());
+
+        mockMvc.perform(put("/api/clientes/{id}", cliente.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Souza", cliente.getCpf())))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(jsonPath("$.nome").value("Maria Souza"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void putComCpfDeOutroClienteDevolve409() throws Exception {
+        Cliente outro = clienteService.incluir(DadosTeste.cliente("João Lima", NUMERO.incrementAndGet()));
+
+        mockMvc.perform(put("/api/clientes/{id}", cliente.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Silva", outro.getCpf())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void postComCpfRepetidoDevolve409() throws Exception {
+        mockMvc.perform(post("/api/clientes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Maria Repetida", cliente.getCpf())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void putDeIdInexistenteDevolve404() throws Exception {
+        mockMvc.perform(put("/api/clientes/{id}", Integer.MAX_VALUE)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json("Ninguém", DadosTeste.cpf(NUMERO.incrementAndGet()))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteComVersaoAntigaDevolve412EComAAtualExclui() throws Exception {
+        clienteService.atualizar(cliente.getId(), null, "Maria Alterada", cliente.getCpf());
+
+        mockMvc.perform(delete("/api/clientes/{id}", cliente.getId()).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/clientes/{id}", cliente.getId()).header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/clientes/{id}", cliente.getId()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.service.ClienteService;
+import io.github.pfalencar.clientes.service.ExecutorOperacoes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//Endpoints do ClienteController com clientes.async.habilitado=true: a resposta sai por despacho assíncrono e,
+//com o pool de leitura ocupado e a fila cheia, a requisição é recusada com 503 no formato do ApiErrors.
+@SpringBootTest(properties = {
+        "clientes.async.habilitado=true",
+        "clientes.async.leitura.threads=1",
+        "clientes.async.leitura.fila=1"})
+@AutoConfigureMockMvc
+class ExecucaoAssincronaClienteTest {
+
+    private static final AtomicLong NUMERO = new AtomicLong(15_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ExecutorOperacoes executor;
+
+    private final CountDownLatch iniciou = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private Cliente cliente;
+
+    @BeforeEach
+    void incluir() {
+        cliente = clienteService.incluir(DadosTeste.cliente("Assíncrono", NUMERO.incrementAndGet()));
+    }
+
+    @AfterEach
+    void liberarPool() {
+        liberar.countDown();
+    }
+
+    @Test
+    void leituraRespondePorDespachoAssincrono() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Assíncrono"));
+    }
+
+    //a exceção lançada no pool chega ao ApplicationControllerAdvice como no modo síncrono
+    @Test
+    void erroNoPoolViraARespostaDeErro() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/clientes/{id}", -1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void filaCheiaDevolve503NaHora() throws Exception {
+        //uma leitura presa na thread e outra na fila
+        executor.noPool(executor.leitura(this::esperarLiberacao));
+        iniciou.await(5, TimeUnit.SECONDS);
+        executor.noPool(executor.leitura(this::esperarLiberacao));
+
+        mockMvc.perform(get("/api/clientes/{id}", cliente.getId()))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errors[0]").value(containsString("Servidor ocupado")));
+    }
+
+    private Object esperarLiberacao() {
+        iniciou.countDown();
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//GET /api/clientes/export: CSV (RFC 4180) e NDJSON, direto do cursor JDBC, com ou sem gzip.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportacaoClientesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private ClienteExcluidoRepository clienteExcluidoRepository;
+
+    //linhas gravadas por fora da aplicação: nome com quebra de linha e versão nula (ids longe dos da sequence)
+    @BeforeEach
+    void clientes() {
+        servicoRepository.deleteAllInBatch();
+        clienteExcluidoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        jdbcTemplate.update("insert into cliente (id, nome, cpf, data_cadastro, versao) values "
+                + "(900001, 'Maria Silva', '11111111111', date '2020-05-04', 2), "
+                + "(900002, 'Linha' || char(13) || 'Quebrada', '22222222222', null, 0), "
+                + "(900003, 'Sem \"Versao\", Ltda', '33333333333', null, null)");
+    }
+
+    private String exportar(String formato) throws Exception {
+        return new String(mockMvc.perform(get("/api/clientes/export").param("formato", formato))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String descomprimir(byte[] corpo) throws IOException {
+        return new String(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(corpo))),
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvComAspasNosCamposEspeciaisEVersaoNulaVazia() throws Exception {
+        assertThat(exportar("csv")).isEqualTo("id,nome,cpf,dataCadastro,versao\n"
+                + "900001,Maria Silva,11111111111,04/05/2020,2\n"
+                + "900002,\"Linha\rQuebrada\",22222222222,,0\n"
+                + "900003,\"Sem \"\"Versao\"\", Ltda\",33333333333,,\n");
+    }
+
+    @Test
+    void ndjsonComVersaoNula() throws Exception {
+        assertThat(exportar("ndjson").split("\n"))
+                .containsExactly(
+                        "{\"id\":900001,\"nome\":\"Maria Silva\",\"cpf\":\"11111111111\",\"dataCadastro\":\"04/05/2020\",\"versao\":2}",
+                        "{\"id\":900002,\"nome\":\"Linha\\rQuebrada\",\"cpf\":\"22222222222\",\"dataCadastro\":null,\"versao\":0}",
+                        "{\"id\":900003,\"nome\":\"Sem \\\"Versao\\\", Ltda\",\"cpf\":\"33333333333\",\"dataCadastro\":null,\"versao\":null}");
+    }
+
+    //?gzip=true: arquivo .gz para download, sem Content-Encoding (o navegador não descomprime)
+    @Test
+    void gzipPeloParametroBaixaArquivoComprimido() throws Exception {
+        byte[] corpo = mockMvc.perform(get("/api/clientes/export").param("formato", "csv").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=clientes.csv.gz"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(descomprimir(corpo)).isEqualTo(exportar("csv"));
+    }
+
+    @Test
+    void gzipNegociadoPeloAcceptEncoding() throws Exception {
+        byte[] corpo = mockMvc.perform(get("/api/clientes/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=clientes.ndjson"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(descomprimir(corpo)).isEqualTo(exportar("ndjson"));
+    }
+
+    @Test
+    void semAcceptEncodingNaoComprime() throws Exception {
+        mockMvc.perform(get("/api/clientes/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void formatoDesconhecidoDevolve400() throws Exception {
+        mockMvc.perform(get("/api/clientes/export").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
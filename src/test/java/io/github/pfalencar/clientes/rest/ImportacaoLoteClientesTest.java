@@ -0,0 +1,106 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.service.ClienteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//POST /api/clientes/lote em array JSON e em NDJSON: itens válidos gravados, os outros voltam como erro pelo índice.
+//Bloco de 2 itens para o lote passar por mais de um batch e pegar CPF repetido entre blocos.
+@SpringBootTest(properties = "clientes.lote.tamanho-bloco=2")
+@AutoConfigureMockMvc
+class ImportacaoLoteClientesTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    //CPFs diferentes a cada teste, sem limpar a tabela
+    private static final AtomicLong NUMERO = new AtomicLong(11_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private static String json(String nome, String cpf) {
+        return "{\"nome\":\"" + nome + "\",\"cpf\":\"" + cpf + "\"}";
+    }
+
+    @Test
+    void arrayComItensValidosEInvalidos() throws Exception {
+        String cadastrado = clienteService.incluir(DadosTeste.cliente("Já Cadastrado", NUMERO.incrementAndGet())).getCpf();
+        String primeiro = DadosTeste.cpf(NUMERO.incrementAndGet());
+        String segundo = DadosTeste.cpf(NUMERO.incrementAndGet());
+        String corpo = "[" + String.join(",",
+                json("Ana", primeiro),          //0 válido
+                json("", "11111111111"),        //1 nome vazio e CPF inválido
+                "null",                         //2 item nulo
+                json("Bruno", cadastrado),      //3 CPF já cadastrado
+                json("Carla", segundo),         //4 válido
+                json("Ana de Novo", primeiro)   //5 CPF repetido do item 0, que foi em outro bloco
+        ) + "]";
+
+        mockMvc.perform(post("/api/clientes/lote").contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recebidos").value(6))
+                .andExpect(jsonPath("$.inseridos").value(2))
+                .andExpect(jsonPath("$.erros", hasSize(4)))
+                .andExpect(jsonPath("$.erros[*].indice").value(contains(1, 2, 3, 5)))
+                .andExpect(jsonPath("$.erros[0].errors", hasSize(2)))
+                .andExpect(jsonPath("$.erros[2].errors[0]").value("CPF já cadastrado"))
+                .andExpect(jsonPath("$.erros[3].errors[0]").value("CPF já cadastrado"));
+
+        assertThat(clienteRepository.findCpfsCadastrados(Arrays.asList(primeiro, segundo)))
+                .containsExactlyInAnyOrder(primeiro, segundo);
+    }
+
+    @Test
+    void ndjsonComLinhaMalformadaRejeitaSoAquelaLinha() throws Exception {
+        String primeiro = DadosTeste.cpf(NUMERO.incrementAndGet());
+        String segundo = DadosTeste.cpf(NUMERO.incrementAndGet());
+        String corpo = json("Ana", primeiro) + "\n"
+                + "{\"nome\":\"Quebrado\",\"cpf\":\n"
+                + "\n"
+                + json("Bruno", segundo) + "\n";
+
+        mockMvc.perform(post("/api/clientes/lote").contentType(NDJSON).content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recebidos").value(3))
+                .andExpect(jsonPath("$.inseridos").value(2))
+                .andExpect(jsonPath("$.erros", hasSize(1)))
+                .andExpect(jsonPath("$.erros[0].indice").value(1))
+                .andExpect(jsonPath("$.erros[0].errors[0]").value(startsWith("JSON inválido: ")));
+
+        assertThat(clienteRepository.findCpfsCadastrados(Arrays.asList(primeiro, segundo)))
+                .containsExactlyInAnyOrder(primeiro, segundo);
+    }
+
+    @Test
+    void arrayMalformadoDevolve400SemGravarNada() throws Exception {
+        String cpf = DadosTeste.cpf(NUMERO.incrementAndGet());
+
+        mockMvc.perform(post("/api/clientes/lote").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + json("Ana", cpf) + ", {\"nome\":"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(clienteRepository.findCpfsCadastrados(Arrays.asList(cpf))).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.config.admissao.AdmissaoInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//429 com Retry-After quando o client passa do limite. GET /api/clientes custa 5: com capacidade 5 e 1 token por
+//segundo, a primeira listagem esvazia o balde e a seguinte só passa depois de 5 segundos.
+@SpringBootTest(properties = {
+        "clientes.limite.habilitado=true",
+        "clientes.limite.capacidade=5",
+        "clientes.limite.tokens-por-segundo=1",
+        "clientes.limite.chaves-api=parceiro"})
+@AutoConfigureMockMvc
+class LimiteRequisicoesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static MockHttpServletRequestBuilder listagem(String ip) {
+        return get("/api/clientes").with(request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        });
+    }
+
+    @Test
+    void passouDoLimiteRecebe429ComRetryAfter() throws Exception {
+        mockMvc.perform(listagem("10.0.1.1"))
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+
+        mockMvc.perform(listagem("10.0.1.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+
+        //outro IP tem o seu balde
+        mockMvc.perform(listagem("10.0.1.2"))
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void chaveInventadaContaNoBaldeDoIp() throws Exception {
+        mockMvc.perform(listagem("10.0.2.1"))
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+
+        mockMvc.perform(listagem("10.0.2.1").header(AdmissaoInterceptor.HEADER_CHAVE, "qualquer-uma"))
+                .andExpect(status().isTooManyRequests());
+
+        //chave cadastrada: balde próprio, mesmo vindo do mesmo IP
+        mockMvc.perform(listagem("10.0.2.1").header(AdmissaoInterceptor.HEADER_CHAVE, "parceiro"))
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//Paginação por cursor (keyset) do GET /api/clientes: limites de página e o cursor da próxima.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ListagemClientesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private ClienteExcluidoRepository clienteExcluidoRepository;
+
+    private List<Integer> ids;
+
+    @BeforeEach
+    void cincoClientes() {
+        servicoRepository.deleteAllInBatch();
+        clienteExcluidoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Cliente cliente = clienteRepository.save(DadosTeste.cliente("Cliente " + i, i));
+            ids.add(cliente.getId());
+        }
+    }
+
+    @Test
+    void primeiraPaginaTrazOCursorDoUltimoItem() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("tamanho", "2"))
+                //clientes.async.habilitado=false (padrão): responde na thread da requisição
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(ids.get(0)))
+                .andExpect(jsonPath("$[1].id").value(ids.get(1)))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(1))))
+                .andExpect(header().string("Link",
+                        "</api/clientes?cursor=" + ids.get(1) + "&tamanho=2&resumo=false>; rel=\"next\""));
+    }
+
+    @Test
+    void cursorComecaDepoisDoIdInformado() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("cursor", String.valueOf(ids.get(1))).param("tamanho", "2"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(ids.get(2)))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(3))));
+    }
+
+    @Test
+    void ultimaPaginaIncompletaNaoTemCursor() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("cursor", String.valueOf(ids.get(3))).param("tamanho", "2"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(ids.get(4)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    //a página fecha exatamente no último registro: o registro a mais pedido ao banco não existe
+    @Test
+    void paginaExataNoFimNaoTemCursor() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("tamanho", "5"))
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void cursorDepoisDoUltimoDevolveListaVazia() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("cursor", String.valueOf(ids.get(4))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void resumoUsaOMesmoCursor() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("tamanho", "3").param("resumo", "true"))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[2].nome").value("Cliente 3"))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(2))));
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.pfalencar.clientes.rest;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.Servico;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import io.github.pfalencar.clientes.service.ClienteService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+//API de serviços: listagens com o cliente no mesmo SELECT (número de consultas fixo) e totais calculados no banco.
+//As estatísticas do Hibernate contam os comandos preparados; o cache de segundo nível é esvaziado antes de cada
+//chamada, senão um N+1 viraria acerto de cache e passaria despercebido.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServicoControllerTest {
+
+    private static final AtomicLong NUMERO = new AtomicLong(13_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+    private Cliente ana;
+    private Cliente bruno;
+
+    @BeforeEach
+    void servicos() {
+        servicoRepository.deleteAll();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ana = clienteService.incluir(DadosTeste.cliente("Ana", NUMERO.incrementAndGet()));
+        bruno = clienteService.incluir(DadosTeste.cliente("Bruno", NUMERO.incrementAndGet()));
+        servico(ana, "10.00", LocalDate.of(2020, 1, 10));
+        servico(ana, "5.50", LocalDate.of(2020, 1, 20));
+        servico(ana, "20.00", LocalDate.of(2020, 2, 5));
+        servico(bruno, "1.00", LocalDate.of(2020, 3, 1));
+    }
+
+    private void servico(Cliente cliente, String valor, LocalDate data) {
+        Servico servico = new Servico();
+        servico.setDescricao("Serviço de " + cliente.getNome());
+        servico.setValor(new BigDecimal(valor));
+        servico.setData(data);
+        servico.setCliente(cliente);
+        servicoRepository.save(servico);
+    }
+
+    private void semCache() {
+        entityManagerFactory.getCache().evictAll();
+        estatisticas.clear();
+    }
+
+    @Test
+    void listagemTrazOClienteSemUmaConsultaPorServico() throws Exception {
+        semCache();
+
+        mockMvc.perform(get("/api/servicos").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[2].cliente.nome").value("Ana"))
+                .andExpect(jsonPath("$.totalElements").value(4));
+
+        //página + count
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void listagemPorClienteTrazOClienteSemUmaConsultaPorServico() throws Exception {
+        semCache();
+
+        mockMvc.perform(get("/api/servicos/cliente/{idCliente}", ana.getId()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].data").value("05/02/2020"))
+                .andExpect(jsonPath("$.content[0].cliente.nome").value("Ana"))
+                .andExpect(jsonPath("$.content[1].cliente.nome").value("Ana"))
+                .andExpect(jsonPath("$.totalElements").value(3));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void totaisPorClienteVemDoBancoEmUmaConsulta() throws Exception {
+        semCache();
+
+        mockMvc.perform(get("/api/servicos/totais"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].idCliente").value(ana.getId()))
+                .andExpect(jsonPath("$[0].nomeCliente").value("Ana"))
+                .andExpect(jsonPath("$[0].quantidade").value(3))
+                .andExpect(jsonPath("$[0].total").value(35.5))
+                .andExpect(jsonPath("$[1].idCliente").value(bruno.getId()))
+                .andExpect(jsonPath("$[1].total").value(1.0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void totaisPorClientePaginadosPeloCursor() throws Exception {
+        mockMvc.perform(get("/api/servicos/totais").param("tamanho", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].idCliente").value(ana.getId()))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ana.getId())));
+
+        mockMvc.perform(get("/api/servicos/totais").param("cursor", String.valueOf(ana.getId())).param("tamanho", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].idCliente").value(bruno.getId()))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    //a página traz todos os meses dos clientes dela, sem cortar um cliente ao meio
+    @Test
+    void totaisPorMesPaginadosPorCliente() throws Exception {
+        semCache();
+
+        mockMvc.perform(get("/api/servicos/totais/mensal").param("tamanho", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].idCliente").value(ana.getId()))
+                .andExpect(jsonPath("$[0].mes").value(1))
+                .andExpect(jsonPath("$[0].quantidade").value(2))
+                .andExpect(jsonPath("$[0].total").value(15.5))
+                .andExpect(jsonPath("$[1].mes").value(2))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ana.getId())));
+
+        //ids da faixa + totais
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+
+        mockMvc.perform(get("/api/servicos/totais/mensal").param("idCliente", String.valueOf(bruno.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].ano").value(2020))
+                .andExpect(jsonPath("$[0].mes").value(3));
+    }
+
+    @Test
+    void servicoDeClienteInexistenteDevolve400() throws Exception {
+        mockMvc.perform(post("/api/servicos").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"descricao\":\"Corte\",\"valor\":10,\"data\":\"01/01/2020\",\"idCliente\":-1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value(containsString("Cliente inexistente")));
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.config.datasource.ContextoRoteamento;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+//Cache de clientes por id na frente do ClienteRepository (sem banco: o repositório é um mock).
+class ClienteCacheTest {
+
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+    private final ClienteCache cache =
+            new ClienteCache(clienteRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(10));
+
+    private static Cliente cliente(int id) {
+        Cliente cliente = DadosTeste.cliente("Cliente " + id, id);
+        cliente.setId(id);
+        return cliente;
+    }
+
+    //o que entra no cache fica pelo ttl inteiro: não pode vir de uma réplica atrasada
+    @Test
+    void falhaDoCacheLeDoPrimario() {
+        AtomicBoolean noPrimario = new AtomicBoolean();
+        when(clienteRepository.findById(1)).thenAnswer(invocacao -> {
+            noPrimario.set(ContextoRoteamento.forcarPrimario());
+            return Optional.of(cliente(1));
+        });
+
+        assertThat(cache.buscar(1)).isPresent();
+
+        assertThat(noPrimario).isTrue();
+        assertThat(ContextoRoteamento.forcarPrimario()).isFalse();
+    }
+
+    @Test
+    void segundaBuscaNaoVaiAoBanco() {
+        when(clienteRepository.findById(1)).thenReturn(Optional.of(cliente(1)));
+
+        assertThat(cache.buscar(1)).isPresent();
+        assertThat(cache.buscar(1)).isPresent();
+
+        verify(clienteRepository, times(1)).findById(1);
+        assertThat(cache.estatisticas().hitCount()).isEqualTo(1);
+        assertThat(cache.estatisticas().missCount()).isEqualTo(1);
+    }
+
+    //404 repetido também não bate no banco enquanto durar o ttl negativo
+    @Test
+    void naoEncontradoFicaNoCache() {
+        when(clienteRepository.findById(2)).thenReturn(Optional.empty());
+
+        assertThat(cache.buscar(2)).isEmpty();
+        assertThat(cache.buscar(2)).isEmpty();
+
+        verify(clienteRepository, times(1)).findById(2);
+    }
+
+    @Test
+    void naoEncontradoExpiraAntesDoEncontrado() throws InterruptedException {
+        ClienteCache ttlNegativoCurto =
+                new ClienteCache(clienteRepository, 100, Duration.ofMinutes(5), Duration.ofMillis(1));
+        when(clienteRepository.findById(1)).thenReturn(Optional.of(cliente(1)));
+        when(clienteRepository.findById(2)).thenReturn(Optional.empty());
+        ttlNegativoCurto.buscar(1);
+        ttlNegativoCurto.buscar(2);
+
+        Thread.sleep(50);
+        ttlNegativoCurto.buscar(1);
+        ttlNegativoCurto.buscar(2);
+
+        verify(clienteRepository, times(1)).findById(1);
+        verify(clienteRepository, times(2)).findById(2);
+    }
+
+    //depois de salvar, o id que estava como "não encontrado" já volta o cliente gravado, sem ir ao banco
+    @Test
+    void atualizarSubstituiONaoEncontrado() {
+        when(clienteRepository.findById(3)).thenReturn(Optional.empty());
+        cache.buscar(3);
+        Cliente gravado = cliente(3);
+
+        cache.atualizar(gravado);
+
+        assertThat(cache.buscar(3)).containsSame(gravado);
+        verify(clienteRepository, times(1)).findById(3);
+    }
+
+    @Test
+    void invalidarFazABuscaVoltarAoBanco() {
+        when(clienteRepository.findById(4)).thenReturn(Optional.of(cliente(4)), Optional.empty());
+        cache.buscar(4);
+
+        cache.invalidar(4);
+
+        assertThat(cache.buscar(4)).isEmpty();
+        verify(clienteRepository, times(2)).findById(4);
+    }
+
+    @Test
+    void publicaAcertosEFalhasNasMetricas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        when(clienteRepository.findById(1)).thenReturn(Optional.of(cliente(1)));
+
+        cache.buscar(1);
+        cache.buscar(1);
+
+        assertThat(registry.get("cache.gets").tag("cache", "clientes").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "clientes").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.evictions").tag("cache", "clientes").functionCounter()).isNotNull();
+    }
+}
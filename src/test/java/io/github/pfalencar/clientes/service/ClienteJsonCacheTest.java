@@ -0,0 +1,96 @@
+package io.github.pfalencar.clientes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//JSON pronto por id + versão: mesmo conteúdo que o Jackson geraria, sem serializar de novo a mesma versão.
+class ClienteJsonCacheTest {
+
+    //mesma configuração do ObjectMapper do Spring Boot (datas java.time pelo @JsonFormat, sem timestamps)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ClienteJsonCache cache = new ClienteJsonCache(objectMapper, DataSize.ofMegabytes(1));
+
+    private static Cliente cliente(int id, int versao) {
+        Cliente cliente = DadosTeste.cliente("Cliente " + id, id);
+        cliente.setId(id);
+        cliente.setVersao(versao);
+        cliente.setDataCadastro(LocalDate.of(2020, 5, 4));
+        return cliente;
+    }
+
+    private static String texto(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void mesmoJsonDoJackson() throws Exception {
+        Cliente cliente = cliente(1, 0);
+
+        assertThat(texto(cache.json(cliente))).isEqualTo(objectMapper.writeValueAsString(cliente))
+                .contains("\"dataCadastro\":\"04/05/2020\"");
+    }
+
+    //a mesma versão não é serializada de novo: os bytes guardados são devolvidos como estão
+    @Test
+    void mesmaVersaoVemDoCache() {
+        Cliente cliente = cliente(1, 0);
+        byte[] primeiro = cache.json(cliente);
+
+        assertThat(cache.json(cliente(1, 0))).isSameAs(primeiro);
+    }
+
+    //toda alteração soma 1 na versão, então a chave muda e o JSON antigo não é usado (sem invalidação)
+    @Test
+    void novaVersaoGeraNovoJson() {
+        Cliente cliente = cliente(1, 0);
+        cache.json(cliente);
+        cliente.setNome("Nome Alterado");
+        cliente.setVersao(1);
+
+        assertThat(texto(cache.json(cliente))).contains("\"nome\":\"Nome Alterado\"");
+    }
+
+    //sem id ou versão não dá para montar a chave: serializa sempre
+    @Test
+    void semVersaoNaoGuarda() {
+        Cliente cliente = cliente(1, 0);
+        cliente.setVersao(null);
+
+        assertThat(cache.json(cliente)).isNotSameAs(cache.json(cliente));
+    }
+
+    @Test
+    void listaJuntaOsFragmentosComoOJackson() throws Exception {
+        Cliente primeiro = cliente(1, 0);
+        Cliente segundo = cliente(2, 3);
+        cache.json(primeiro);
+
+        assertThat(texto(cache.lista(Arrays.asList(primeiro, segundo))))
+                .isEqualTo(objectMapper.writeValueAsString(Arrays.asList(primeiro, segundo)));
+        assertThat(texto(cache.lista(Collections.emptyList()))).isEqualTo("[]");
+    }
+
+    @Test
+    void publicaAcertosNasMetricas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.json(cliente(1, 0));
+        cache.json(cliente(1, 0));
+
+        assertThat(registry.get("cache.gets").tag("cache", "clientes.json").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.pfalencar.clientes.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+//Pools limitados do modo assíncrono: 1 thread e fila de 1 para leitura e para escrita.
+class ExecutorOperacoesTest {
+
+    private final ExecutorOperacoes executor = new ExecutorOperacoes(true, 1, 1, 1, 1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch iniciou = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @BeforeEach
+    void metricas() {
+        executor.bindTo(registry);
+    }
+
+    @AfterEach
+    void encerrar() {
+        liberar.countDown();
+        executor.destroy();
+    }
+
+    private Operacao<String> leituraPresa() {
+        return executor.leitura(() -> {
+            iniciou.countDown();
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok";
+        });
+    }
+
+    @Test
+    void rodaNoPoolDoTipoDaOperacao() throws Exception {
+        assertThat(executor.noPool(executor.leitura(() -> Thread.currentThread().getName())).get(5, TimeUnit.SECONDS))
+                .startsWith("clientes-leitura-");
+        assertThat(executor.noPool(executor.escrita(() -> Thread.currentThread().getName())).get(5, TimeUnit.SECONDS))
+                .startsWith("clientes-escrita-");
+    }
+
+    //thread ocupada + fila cheia: a próxima é recusada na hora, sem esperar
+    @Test
+    void filaCheiaRecusaCom503() throws Exception {
+        CompletableFuture<String> executando = executor.noPool(leituraPresa());
+        iniciou.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> naFila = executor.noPool(leituraPresa());
+
+        ResponseStatusException recusa =
+                catchThrowableOfType(() -> executor.noPool(leituraPresa()), ResponseStatusException.class);
+
+        assertThat(recusa.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(registry.get("clientes.async.rejeicoes").tag("operacao", "leitura").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("executor.queued").tag("name", "clientes.leitura").gauge().value()).isEqualTo(1);
+
+        liberar.countDown();
+        assertThat(executando.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(naFila.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+
+    //leitura e escrita têm pools separados: leituras presas não seguram as escritas
+    @Test
+    void escritaNaoEsperaPelasLeituras() throws Exception {
+        executor.noPool(leituraPresa());
+        iniciou.await(5, TimeUnit.SECONDS);
+        executor.noPool(leituraPresa());
+
+        assertThat(executor.noPool(executor.escrita(() -> "gravado")).get(5, TimeUnit.SECONDS)).isEqualTo("gravado");
+        assertThat(registry.get("clientes.async.rejeicoes").tag("operacao", "escrita").counter().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.entity.ClienteExcluido;
+import io.github.pfalencar.clientes.model.repository.ClienteExcluidoRepository;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import io.github.pfalencar.clientes.model.repository.ServicoRepository;
+import io.github.pfalencar.clientes.rest.dto.PaginaAlteracoes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Feed de alterações: intercalação de alterações e lápides, token, limite seguro e poda das lápides.
+//Retenção zero: a poda agendada apaga as lápides antigas assim que roda (aqui ela é chamada direto).
+@SpringBootTest(properties = {
+        "clientes.feed.retencao-exclusoes=0s",
+        "clientes.feed.intervalo-poda-ms=3600000"})
+class FeedAlteracoesClientesTest {
+
+    private static final AtomicLong NUMERO = new AtomicLong(5000);
+
+    @Autowired
+    private FeedAlteracoesClientes feed;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private SequenciaAlteracoes sequenciaAlteracoes;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteExcluidoRepository clienteExcluidoRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService outraThread = Executors.newSingleThreadExecutor();
+
+    //token de onde o teste começa: tudo o que testes anteriores gravaram fica para trás
+    private long inicio;
+
+    @BeforeEach
+    void limpar() {
+        servicoRepository.deleteAllInBatch();
+        clienteExcluidoRepository.deleteAllInBatch();
+        clienteRepository.deleteAllInBatch();
+        inicio = sequenciaAlteracoes.limiteSeguro();
+        //sem lápides, como numa base nova: o feed não considera nenhum token anterior a uma poda
+        feed.buscar(Long.MAX_VALUE, 1);
+    }
+
+    @AfterEach
+    void encerrar() {
+        outraThread.shutdownNow();
+    }
+
+    private Cliente incluir(String nome) {
+        return clienteService.incluir(DadosTeste.cliente(nome, NUMERO.incrementAndGet()));
+    }
+
+    @Test
+    void intercalaAlteracoesEExclusoesPelaSequencia() {
+        Cliente ana = incluir("Ana");
+        Cliente bruno = incluir("Bruno");
+        clienteService.excluir(ana.getId(), null);
+        clienteService.atualizar(bruno.getId(), null, "Bruno Alterado", bruno.getCpf());
+
+        PaginaAlteracoes pagina = feed.buscar(inicio, 100);
+
+        assertThat(pagina.getAlterados()).extracting(Cliente::getNome).containsExactly("Bruno Alterado");
+        assertThat(pagina.getExcluidos()).containsExactly(ana.getId());
+        assertThat(pagina.getToken()).isEqualTo(String.valueOf(pagina.getAlterados().get(0).getSequencia()));
+        assertThat(pagina.isTemMais()).isFalse();
+
+        assertThat(feed.buscar(Long.parseLong(pagina.getToken()), 100).vazia()).isTrue();
+    }
+
+    @Test
+    void paginaPeloLimiteSemPularNenhumaAlteracao() {
+        Cliente ana = incluir("Ana");
+        incluir("Bruno");
+        clienteService.excluir(ana.getId(), null);
+
+        PaginaAlteracoes primeira = feed.buscar(inicio, 1);
+        assertThat(primeira.getAlterados()).extracting(Cliente::getNome).containsExactly("Bruno");
+        assertThat(primeira.getExcluidos()).isEmpty();
+        assertThat(primeira.isTemMais()).isTrue();
+
+        PaginaAlteracoes segunda = feed.buscar(Long.parseLong(primeira.getToken()), 1);
+        assertThat(segunda.getAlterados()).isEmpty();
+        assertThat(segunda.getExcluidos()).containsExactly(ana.getId());
+        assertThat(segunda.isTemMais()).isFalse();
+    }
+
+    //Uma transação pegou uma sequencia e ainda não commitou; outra, com sequencia maior, já commitou.
+    //O token não pode passar da pendente, senão o client nunca veria aquela alteração.
+    @Test
+    void tokenParaAntesDeUmaSequenciaAindaNaoCommitada() {
+        Cliente antes = incluir("Antes");
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        long pendente = transacao.execute(status -> {
+            long sequencia = sequenciaAlteracoes.proxima();
+            try {
+                outraThread.submit(() -> incluir("Depois")).get(10, TimeUnit.SECONDS);
+                PaginaAlteracoes durante = outraThread.submit(() -> feed.buscar(inicio, 100)).get(10, TimeUnit.SECONDS);
+
+                assertThat(durante.getAlterados()).extracting(Cliente::getNome).containsExactly("Antes");
+                assertThat(Long.parseLong(durante.getToken())).isEqualTo(antes.getSequencia()).isLessThan(sequencia);
+                assertThat(durante.isTemMais()).isFalse();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+            return sequencia;
+        });
+
+        PaginaAlteracoes depois = feed.buscar(antes.getSequencia(), 100);
+        assertThat(depois.getAlterados()).extracting(Cliente::getNome).containsExactly("Depois");
+        assertThat(Long.parseLong(depois.getToken())).isGreaterThan(pendente);
+    }
+
+    @Test
+    void tokenAnteriorAsLapidesPodadasRecebe410() {
+        Cliente ana = incluir("Ana");
+        Cliente bruno = incluir("Bruno");
+        Cliente carla = incluir("Carla");
+        clienteService.excluir(ana.getId(), null);
+        clienteService.excluir(bruno.getId(), null);
+        esperar(); //excluidoEm precisa ficar antes de agora - retenção
+
+        feed.podarExclusoes();
+
+        //a lápide mais nova fica; a da Ana foi apagada
+        assertThat(clienteExcluidoRepository.findAll())
+                .extracting(ClienteExcluido::getIdCliente)
+                .containsExactly(bruno.getId());
+        assertThatThrownBy(() -> feed.buscar(carla.getSequencia(), 100))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.GONE));
+
+        //carga completa (since=0) continua valendo
+        PaginaAlteracoes completa = feed.buscar(0, 100);
+        assertThat(completa.getAlterados()).extracting(Cliente::getNome).containsExactly("Carla");
+        assertThat(completa.getExcluidos()).containsExactly(bruno.getId());
+    }
+
+    private static void esperar() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.model.entity.Cliente;
+import io.github.pfalencar.clientes.model.repository.ClienteRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//UPDATE/DELETE condicionais do ClienteService: um comando só (sem SELECT antes), e do cache de segundo nível sai
+//só o cliente gravado; os resultados do cache de consultas que dependem da tabela deixam de valer.
+@SpringBootTest
+class GravacaoClienteCacheTest {
+
+    private static final AtomicLong NUMERO = new AtomicLong(7000);
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+    private Statistics estatisticas;
+    private Cliente alterado;
+    private Cliente outro;
+
+    @BeforeEach
+    void doisClientesNoCache() {
+        cache = entityManagerFactory.getCache();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        alterado = clienteService.incluir(DadosTeste.cliente("Alterado", NUMERO.incrementAndGet()));
+        outro = clienteService.incluir(DadosTeste.cliente("Outro", NUMERO.incrementAndGet()));
+        clienteRepository.findById(alterado.getId());
+        clienteRepository.findById(outro.getId());
+        assertThat(cache.contains(Cliente.class, alterado.getId())).isTrue();
+        assertThat(cache.contains(Cliente.class, outro.getId())).isTrue();
+    }
+
+    @Test
+    void atualizarComUmComandoETirarSoOClienteDoCache() {
+        estatisticas.clear();
+
+        clienteService.atualizar(alterado.getId(), 0, "Alterado de Novo", alterado.getCpf());
+
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        //nextval da sequencia de alterações + o UPDATE
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(cache.contains(Cliente.class, alterado.getId())).isFalse();
+        assertThat(cache.contains(Cliente.class, outro.getId())).isTrue();
+        assertThat(clienteRepository.findById(alterado.getId()).get().getVersao()).isEqualTo(1);
+    }
+
+    @Test
+    void atualizarInvalidaAsConsultasCacheadas() {
+        String cpfAntigo = alterado.getCpf();
+        assertThat(clienteRepository.findByCpf(cpfAntigo)).isPresent();
+
+        clienteService.atualizar(alterado.getId(), null, "Alterado", DadosTeste.cpf(NUMERO.incrementAndGet()));
+
+        assertThat(clienteRepository.findByCpf(cpfAntigo)).isEmpty();
+    }
+
+    @Test
+    void excluirTiraSoOClienteDoCache() {
+        clienteService.excluir(alterado.getId(), 0);
+
+        assertThat(cache.contains(Cliente.class, alterado.getId())).isFalse();
+        assertThat(cache.contains(Cliente.class, outro.getId())).isTrue();
+        assertThat(clienteRepository.findById(alterado.getId())).isEmpty();
+    }
+}
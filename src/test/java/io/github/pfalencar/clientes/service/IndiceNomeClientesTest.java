@@ -0,0 +1,126 @@
+package io.github.pfalencar.clientes.service;
+
+import io.github.pfalencar.clientes.DadosTeste;
+import io.github.pfalencar.clientes.rest.dto.ResultadoBusca;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Índice em memória da busca por nome, sem banco (o repositório só é usado na carga inicial).
+class IndiceNomeClientesTest {
+
+    private IndiceNomeClientes indice;
+
+    @BeforeEach
+    void criar() {
+        indice = new IndiceNomeClientes(null);
+    }
+
+    private void indexar(int id, String nome) {
+        indice.indexar(id, nome, DadosTeste.cpf(id));
+    }
+
+    private List<Integer> ids(String consulta, int limite) {
+        return indice.buscar(consulta, limite).stream().map(ResultadoBusca::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void palavraExataVemAntesDePrefixoETrecho() {
+        indexar(1, "Rosamaria Lima");
+        indexar(2, "Mariana Souza");
+        indexar(3, "Maria Silva");
+
+        List<ResultadoBusca> resultado = indice.buscar("maria", 10);
+
+        assertThat(resultado).extracting(ResultadoBusca::getId).containsExactly(3, 2, 1);
+        assertThat(resultado).extracting(ResultadoBusca::getPontuacao).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void ignoraAcentosEMaiusculas() {
+        indexar(1, "José Antônio");
+
+        assertThat(ids("JOSE antonio", 10)).containsExactly(1);
+    }
+
+    @Test
+    void variosTermosPrecisamCasarTodosESomamPontos() {
+        indexar(1, "Maria Silva");
+        indexar(2, "Rosamaria Lima");
+        indexar(3, "Maria Lima");
+
+        List<ResultadoBusca> resultado = indice.buscar("maria lima", 10);
+
+        assertThat(resultado).extracting(ResultadoBusca::getId).containsExactly(3, 2);
+        assertThat(resultado).extracting(ResultadoBusca::getPontuacao).containsExactly(6, 4);
+    }
+
+    @Test
+    void termoSemOcorrenciaNaoTrazNada() {
+        indexar(1, "Maria Silva");
+
+        assertThat(ids("maria xavier", 10)).isEmpty();
+        assertThat(ids("  ", 10)).isEmpty();
+    }
+
+    //termo genérico com muitos clientes junto com um termo raro: nenhum candidato é descartado antes da interseção
+    @Test
+    void termoComumNaoEscondeOResultadoDoTermoRaro() {
+        for (int id = 1; id <= 20_000; id++) {
+            indexar(id, "Ana Nome" + id);
+        }
+        indexar(20_001, "Ana Zuleica");
+
+        assertThat(ids("ana zuleica", 10)).containsExactly(20_001);
+        assertThat(ids("zul an", 10)).containsExactly(20_001);
+    }
+
+    //o limite corta depois da ordenação dos candidatos: palavra exata e palavra mais curta são percorridas antes,
+    //então ganham mesmo indexadas por último
+    @Test
+    void limiteSoDepoisDaOrdenacao() {
+        for (int id = 1; id <= 15_000; id++) {
+            indexar(id, "Anabela Cliente" + id);
+        }
+        indexar(15_001, "Ana");
+        indexar(15_002, "Anabel");
+
+        assertThat(ids("ana", 1)).containsExactly(15_001);
+        assertThat(ids("anab", 1)).containsExactly(15_002);
+    }
+
+    //termo genérico: a busca para em limite x FATOR_CANDIDATOS candidatos, por maior que seja a lista
+    @Test
+    void termoGenericoTemTrabalhoLimitado() {
+        for (int id = 1; id <= 50_000; id++) {
+            indexar(id, "Ana Cliente" + id);
+        }
+        indexar(50_001, "A Silva");
+
+        assertThat(indice.candidatos("a", 10)).hasSize(10 * IndiceNomeClientes.FATOR_CANDIDATOS);
+        assertThat(indice.candidatos("cli an", 5)).hasSize(5 * IndiceNomeClientes.FATOR_CANDIDATOS);
+
+        List<ResultadoBusca> resultado = indice.buscar("a", 10);
+        assertThat(resultado).hasSize(10);
+        assertThat(resultado.get(0).getId()).isEqualTo(50_001);
+        assertThat(resultado.get(0).getPontuacao()).isEqualTo(3);
+    }
+
+    @Test
+    void alteracaoERemocaoAtualizamOIndice() {
+        indexar(1, "Maria Silva");
+        indexar(1, "Joana Silva");
+
+        assertThat(ids("maria", 10)).isEmpty();
+        assertThat(ids("joana", 10)).containsExactly(1);
+
+        indice.remover(1);
+
+        assertThat(ids("silva", 10)).isEmpty();
+        assertThat(indice.tamanho()).isZero();
+    }
+}